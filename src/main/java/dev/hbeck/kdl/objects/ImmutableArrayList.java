@@ -0,0 +1,25 @@
+package dev.hbeck.kdl.objects;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Internal unmodifiable list reading directly from an array it was handed, which nothing else may modify.
+ */
+class ImmutableArrayList<E> extends AbstractList<E> implements RandomAccess {
+    private final E[] elements;
+
+    ImmutableArrayList(E[] elements) {
+        this.elements = elements;
+    }
+
+    @Override
+    public E get(int index) {
+        return elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+}
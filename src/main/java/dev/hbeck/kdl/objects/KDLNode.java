@@ -15,20 +15,68 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 public class KDLNode implements KDLObject {
     private final String identifier;
     private final Optional<String> type;
     private final Map<String, KDLValue<?>> props;
     private final List<KDLValue<?>> args;
-    private final Optional<KDLDocument> child;
+
+    // Null until a lazily loaded child has been loaded, after which childLoader is dropped
+    private volatile Optional<KDLDocument> child;
+    private Supplier<Optional<KDLDocument>> childLoader;
 
     public KDLNode(String identifier, Optional<String> type, Map<String, KDLValue<?>> props, List<KDLValue<?>> args, Optional<KDLDocument> child) {
+        this(identifier, type, Collections.unmodifiableMap(Objects.requireNonNull(props)),
+                Collections.unmodifiableList(Objects.requireNonNull(args)), Objects.requireNonNull(child), null);
+    }
+
+    /**
+     * Creates a node whose child is loaded on the first call to getChild(), and retained from then on. The loader is
+     * called at most once, and any exception it throws is passed on to the caller of getChild() or any other method
+     * needing the child, such as equals().
+     *
+     * @param childLoader supplies the node's child
+     */
+    public KDLNode(String identifier, Optional<String> type, Map<String, KDLValue<?>> props, List<KDLValue<?>> args, Supplier<Optional<KDLDocument>> childLoader) {
+        this(identifier, type, Collections.unmodifiableMap(Objects.requireNonNull(props)),
+                Collections.unmodifiableList(Objects.requireNonNull(args)), null, Objects.requireNonNull(childLoader));
+    }
+
+    private KDLNode(String identifier, Optional<String> type, Map<String, KDLValue<?>> props, List<KDLValue<?>> args,
+                    Optional<KDLDocument> child, Supplier<Optional<KDLDocument>> childLoader) {
         this.identifier = Objects.requireNonNull(identifier);
         this.type = type;
-        this.props = Collections.unmodifiableMap(Objects.requireNonNull(props));
-        this.args = Collections.unmodifiableList(Objects.requireNonNull(args));
-        this.child = Objects.requireNonNull(child);
+        this.props = props;
+        this.args = args;
+        this.child = child;
+        this.childLoader = childLoader;
+    }
+
+    /**
+     * Creates a node reading its arguments and properties directly from the provided arrays rather than copying them,
+     * for use by the parser through {@link KDLObjectsFacade}. Nothing may modify the arrays once the node is created.
+     *
+     * @param keys the property keys, sorted and without duplicates
+     * @param values the property values, each at the same index as its key
+     * @param args the arguments
+     * @param child the node's child, or null if it's loaded by childLoader
+     * @param childLoader supplies the node's child on the first call to getChild(), or null if child is set
+     * @return the new node
+     */
+    static KDLNode fromArrays(String identifier, Optional<String> type, String[] keys, KDLValue<?>[] values,
+                              KDLValue<?>[] args, Optional<KDLDocument> child,
+                              Supplier<Optional<KDLDocument>> childLoader) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException("Property keys and values must be the same length");
+        } else if ((child == null) == (childLoader == null)) {
+            throw new IllegalArgumentException("Exactly one of child and childLoader must be provided");
+        }
+
+        final Map<String, KDLValue<?>> props = keys.length == 0 ? Collections.emptyMap() : new SortedArrayMap<>(keys, values);
+        final List<KDLValue<?>> argList = args.length == 0 ? Collections.emptyList() : new ImmutableArrayList<>(args);
+        return new KDLNode(identifier, type, props, argList, child, childLoader);
     }
 
     /**
@@ -57,7 +105,19 @@ public class KDLNode implements KDLObject {
     }
 
     public Optional<KDLDocument> getChild() {
-        return child;
+        Optional<KDLDocument> loaded = child;
+        if (loaded == null) {
+            synchronized (this) {
+                loaded = child;
+                if (loaded == null) {
+                    loaded = Objects.requireNonNull(childLoader.get());
+                    child = loaded;
+                    childLoader = null;
+                }
+            }
+        }
+
+        return loaded;
     }
 
     /**
@@ -79,6 +139,7 @@ public class KDLNode implements KDLObject {
             writer.write(')');
         }
 
+        final Optional<KDLDocument> child = getChild();
         PrintUtil.writeStringQuotedAppropriately(writer, identifier, true, printConfig);
         if (!args.isEmpty() || !props.isEmpty() || child.isPresent()) {
             writer.write(' ');
@@ -131,7 +192,7 @@ public class KDLNode implements KDLObject {
                 .setType(type.orElse(null))
                 .addAllArgs(args)
                 .addAllProps(props)
-                .setChild(child);
+                .setChild(getChild());
     }
 
     @Override
@@ -141,7 +202,7 @@ public class KDLNode implements KDLObject {
                 ", type=" + type +
                 ", props=" + props +
                 ", args=" + args +
-                ", child=" + child +
+                ", child=" + getChild() +
                 '}';
     }
 
@@ -150,12 +211,12 @@ public class KDLNode implements KDLObject {
         if (this == o) return true;
         if (!(o instanceof KDLNode)) return false;
         KDLNode kdlNode = (KDLNode) o;
-        return Objects.equals(identifier, kdlNode.identifier) && Objects.equals(type, kdlNode.type) && Objects.equals(props, kdlNode.props) && Objects.equals(args, kdlNode.args) && Objects.equals(child, kdlNode.child);
+        return Objects.equals(identifier, kdlNode.identifier) && Objects.equals(type, kdlNode.type) && Objects.equals(props, kdlNode.props) && Objects.equals(args, kdlNode.args) && Objects.equals(getChild(), kdlNode.getChild());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(identifier, type, props, args, child);
+        return Objects.hash(identifier, type, props, args, getChild());
     }
 
     public static class Builder {
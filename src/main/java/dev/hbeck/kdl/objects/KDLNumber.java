@@ -8,17 +8,26 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Representation of a KDL number. Numbers may be base 16, 10, 8, or 2 as stored in the radix field. Base 10 numbers may
- * be fractional, but all others are limited to integers. {@link dev.hbeck.kdl.parse.KDLParser} reads in all numbers as
- * either {@link BigDecimal} (for decimal) or {@link BigInteger} (for non-decimal), so if you <i>absolutely</i> need
- * that precision then don't hesitate to instanceof and cast.
+ * be fractional, but all others are limited to integers. {@link dev.hbeck.kdl.parse.KDLParser} reads in integers that
+ * fit as a primitive long, returned from getValue() as a {@link Long}. Larger integers are read as {@link BigDecimal}
+ * (for decimal) or {@link BigInteger} (for non-decimal), and fractional numbers as {@link BigDecimal}, so if you
+ * <i>absolutely</i> need that precision then don't hesitate to instanceof and cast. When values are parsed lazily,
+ * see {@link dev.hbeck.kdl.parse.ParseConfig#shouldParseValuesLazily()}, the BigDecimals are only built on first use.
  */
 public class KDLNumber extends KDLValue<Number> {
+    // Null if the number is held as the primitive longValue, or is loaded lazily
     private final Number value;
+    private final long longValue;
     private final int radix;
 
+    // Non-null if the number is loaded lazily, in which case loaded is null until it has been
+    private final Supplier<? extends Number> loader;
+    private volatile Number loaded;
+
     public KDLNumber(Number value, int radix) {
         this(value, radix, Optional.empty());
     }
@@ -26,12 +35,66 @@ public class KDLNumber extends KDLValue<Number> {
     public KDLNumber(Number value, int radix, Optional<String> type) {
         super(type);
         this.value = Objects.requireNonNull(value);
+        this.longValue = 0;
+        this.radix = radix;
+        this.loader = null;
+    }
+
+    private KDLNumber(long longValue, int radix, Optional<String> type) {
+        super(type);
+        this.value = null;
+        this.longValue = longValue;
         this.radix = radix;
+        this.loader = null;
+    }
+
+    /**
+     * Creates a number whose value is loaded on the first call to getValue(), or any other method needing it such as
+     * equals(), and retained from then on. The loader is called at most once.
+     *
+     * @param loader supplies the number's value
+     */
+    public KDLNumber(Supplier<? extends Number> loader, int radix, Optional<String> type) {
+        super(type);
+        this.value = null;
+        this.longValue = 0;
+        this.radix = radix;
+        this.loader = Objects.requireNonNull(loader);
     }
 
     @Override
     public Number getValue() {
-        return value;
+        final Number number = loadedValue();
+        return number == null ? Long.valueOf(longValue) : number;
+    }
+
+    private Number loadedValue() {
+        if (loader == null) {
+            return value;
+        }
+
+        Number number = loaded;
+        if (number == null) {
+            synchronized (this) {
+                number = loaded;
+                if (number == null) {
+                    number = Objects.requireNonNull(loader.get());
+                    loaded = number;
+                }
+            }
+        }
+
+        return number;
+    }
+
+    private String valueString() {
+        final Number number = loadedValue();
+        return number == null ? Long.toString(longValue) : number.toString();
+    }
+
+    private String valueString(int radix) {
+        final Number number = loadedValue();
+        return number == null ? Long.toString(longValue, radix) : new BigInteger(number.toString()).toString(radix);
     }
 
     @Override
@@ -41,7 +104,7 @@ public class KDLNumber extends KDLValue<Number> {
 
     @Override
     public KDLString getAsString() {
-        return KDLString.from(value.toString(), type);
+        return KDLString.from(valueString(), type);
     }
 
     @Override
@@ -51,7 +114,7 @@ public class KDLNumber extends KDLValue<Number> {
 
     @Override
     public Number getAsNumberOrElse(Number defaultValue) {
-        return value;
+        return getValue();
     }
 
     @Override
@@ -77,29 +140,29 @@ public class KDLNumber extends KDLValue<Number> {
              */
             switch (radix) {
                 case 10:
-                    writer.write(value.toString().replace('E', printConfig.getExponentChar()));
+                    writer.write(valueString().replace('E', printConfig.getExponentChar()));
                     break;
                 case 2:
                     writer.write("0b");
-                    writer.write(new BigInteger(value.toString()).toString(radix));
+                    writer.write(valueString(radix));
                     break;
                 case 8:
                     writer.write("0o");
-                    writer.write(new BigInteger(value.toString()).toString(radix));
+                    writer.write(valueString(radix));
                     break;
                 case 16:
                     writer.write("0x");
-                    writer.write(new BigInteger(value.toString()).toString(radix));
+                    writer.write(valueString(radix));
                     break;
             }
         } else {
-            writer.write(value.toString().replace('E', printConfig.getExponentChar()));
+            writer.write(valueString().replace('E', printConfig.getExponentChar()));
         }
     }
 
     @Override
     protected String toKDLValue() {
-        return value.toString();
+        return valueString();
     }
 
     /**
@@ -122,6 +185,15 @@ public class KDLNumber extends KDLValue<Number> {
         }
     }
 
+    /**
+     * Create a number held as a primitive long, without boxing it or converting it to a BigDecimal
+     *
+     * @return the new number, with the given radix
+     */
+    public static KDLNumber fromLong(long val, int radix, Optional<String> type) {
+        return new KDLNumber(val, radix, type);
+    }
+
     public static KDLNumber from(Number val, int radix) {
         return from(val, radix, Optional.empty());
     }
@@ -206,7 +278,7 @@ public class KDLNumber extends KDLValue<Number> {
     @Override
     public String toString() {
         return "KDLNumber{" +
-                "value=" + value +
+                "value=" + valueString() +
                 ", radix=" + radix +
                 ", type=" + type +
                 '}';
@@ -223,11 +295,12 @@ public class KDLNumber extends KDLValue<Number> {
         Numbers in Java all stringify in the same way, so this should work fine.
         ~LemmaEOF
          */
-        return radix == kdlNumber.radix && Objects.equals(value.toString(), kdlNumber.value.toString()) && Objects.equals(type, kdlNumber.type);
+        return radix == kdlNumber.radix && Objects.equals(valueString(), kdlNumber.valueString()) && Objects.equals(type, kdlNumber.type);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value, radix, type);
+        // Consistent with equals(), which compares values by their string form
+        return Objects.hash(valueString(), radix, type);
     }
 }
@@ -0,0 +1,23 @@
+package dev.hbeck.kdl.objects;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Internal class allowing the parser access to the internal methods of the model objects without making them part of
+ * the objects' interfaces. Not for use outside of the parser, which guarantees the arrays it hands over are never
+ * modified.
+ */
+public class KDLObjectsFacade {
+    private KDLObjectsFacade() {
+    }
+
+    /**
+     * See {@link KDLNode#fromArrays(String, Optional, String[], KDLValue[], KDLValue[], Optional, Supplier)}
+     */
+    public static KDLNode nodeFromArrays(String identifier, Optional<String> type, String[] keys, KDLValue<?>[] values,
+                                         KDLValue<?>[] args, Optional<KDLDocument> child,
+                                         Supplier<Optional<KDLDocument>> childLoader) {
+        return KDLNode.fromArrays(identifier, type, keys, values, args, child, childLoader);
+    }
+}
@@ -13,7 +13,11 @@ import java.util.Optional;
  * A model object representing a string in a KDL document. Note that even if quoted, identifiers are not KDLStrings.
  */
 public class KDLString extends KDLValue<String> {
-    private final String value;
+    private final CharSequence chars;
+
+    // Null until a string created from characters has been built. Written without synchronization, since Strings are
+    // immutable and at worst a thread builds its own copy.
+    private String value;
 
     public KDLString(String value) {
         this(value, Optional.empty());
@@ -21,11 +25,34 @@ public class KDLString extends KDLValue<String> {
 
     public KDLString(String value, Optional<String> type) {
         super(type);
-        this.value = Objects.requireNonNull(value);
+        this.chars = Objects.requireNonNull(value);
+        this.value = value;
+    }
+
+    private KDLString(CharSequence chars, Optional<String> type) {
+        super(type);
+        this.chars = Objects.requireNonNull(chars);
+        this.value = chars instanceof String ? (String) chars : null;
     }
 
     public String getValue() {
-        return value;
+        String built = value;
+        if (built == null) {
+            built = chars.toString();
+            value = built;
+        }
+
+        return built;
+    }
+
+    /**
+     * Get the characters of the string without necessarily building a String from them. For strings parsed lazily,
+     * see {@link dev.hbeck.kdl.parse.ParseConfig#shouldParseValuesLazily()}, this is a view of the source document.
+     *
+     * @return the string's characters
+     */
+    public CharSequence getChars() {
+        return chars;
     }
 
     @Override
@@ -40,7 +67,7 @@ public class KDLString extends KDLValue<String> {
 
     @Override
     public Optional<KDLNumber> getAsNumber() {
-        return KDLNumber.from(value, type);
+        return KDLNumber.from(getValue(), type);
     }
 
     @Override
@@ -50,7 +77,7 @@ public class KDLString extends KDLValue<String> {
 
     @Override
     public Optional<KDLBoolean> getAsBoolean() {
-        return KDLBoolean.fromString(value, type);
+        return KDLBoolean.fromString(getValue(), type);
     }
 
     @Override
@@ -60,12 +87,12 @@ public class KDLString extends KDLValue<String> {
 
     @Override
     protected void writeKDLValue(Writer writer, PrintConfig printConfig) throws IOException {
-        PrintUtil.writeStringQuotedAppropriately(writer, value, false, printConfig);
+        PrintUtil.writeStringQuotedAppropriately(writer, getValue(), false, printConfig);
     }
 
     @Override
     protected String toKDLValue() {
-        return value;
+        return getValue();
     }
 
     public static KDLString from(String val) {
@@ -76,6 +103,14 @@ public class KDLString extends KDLValue<String> {
         return new KDLString(val, type);
     }
 
+    /**
+     * Create a string from characters which are only copied into a String on the first call to getValue(). The
+     * characters must not change for as long as the string is in use.
+     */
+    public static KDLString fromChars(CharSequence chars, Optional<String> type) {
+        return new KDLString(chars, type);
+    }
+
     public static KDLString empty() {
         return empty(Optional.empty());
     }
@@ -87,7 +122,7 @@ public class KDLString extends KDLValue<String> {
     @Override
     public String toString() {
         return "KDLString{" +
-                "value='" + value + '\'' +
+                "value='" + getValue() + '\'' +
                 ", type=" + type +
                 '}';
     }
@@ -97,11 +132,11 @@ public class KDLString extends KDLValue<String> {
         if (this == o) return true;
         if (!(o instanceof KDLString)) return false;
         KDLString kdlString = (KDLString) o;
-        return Objects.equals(value, kdlString.value) && Objects.equals(type, kdlString.getType());
+        return Objects.equals(getValue(), kdlString.getValue()) && Objects.equals(type, kdlString.getType());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(value, type);
+        return Objects.hash(getValue(), type);
     }
 }
@@ -0,0 +1,84 @@
+package dev.hbeck.kdl.objects;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Internal unmodifiable map reading directly from a pair of arrays it was handed, holding keys in sorted order and the
+ * value for each key at the same index. Lookups binary search the keys, and iteration follows their order, as it
+ * would for a TreeMap.
+ */
+class SortedArrayMap<V> extends AbstractMap<String, V> {
+    private final String[] keys;
+    private final V[] values;
+
+    private Set<Entry<String, V>> entrySet = null;
+
+    SortedArrayMap(String[] keys, V[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    private int indexOf(Object key) {
+        return key instanceof String ? Arrays.binarySearch(keys, key) : -1;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<String, V>> {
+        @Override
+        public Iterator<Entry<String, V>> iterator() {
+            return new Iterator<Entry<String, V>>() {
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < keys.length;
+                }
+
+                @Override
+                public Map.Entry<String, V> next() {
+                    if (next >= keys.length) {
+                        throw new NoSuchElementException();
+                    }
+
+                    final int index = next++;
+                    return new SimpleImmutableEntry<>(keys[index], values[index]);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+    }
+}
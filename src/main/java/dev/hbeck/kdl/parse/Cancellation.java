@@ -0,0 +1,58 @@
+package dev.hbeck.kdl.parse;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Internal class polled while a document is parsed, aborting the parse once it has run past its timeout, been
+ * cancelled, or its thread has been interrupted. Polling is cheap, but it's still only done every so often: each time
+ * the window over a stream is refilled, every POLL_NODES nodes, every POLL_ENTRIES arguments and properties on one
+ * node, and every POLL_CHARS characters of a string or comment.
+ */
+class Cancellation {
+    static final int POLL_NODES = 256;
+    static final int POLL_ENTRIES = 256;
+    static final int POLL_CHARS = 1 << 16;
+
+    private final long timeout;
+    private final long deadline;
+    private final BooleanSupplier cancelled;
+    private final boolean interruptible;
+
+    private Cancellation(long timeout, BooleanSupplier cancelled, boolean interruptible) {
+        this.timeout = timeout;
+        this.deadline = System.nanoTime() + timeout;
+        this.cancelled = cancelled;
+        this.interruptible = interruptible;
+    }
+
+    /**
+     * Start timing a parse. The same check is shared by every reader over the document, so they all have one deadline.
+     *
+     * @return the check to poll during the parse, or null if the config doesn't allow parses to be cancelled
+     */
+    static Cancellation start(ParseConfig config) {
+        final long timeout = config.getTimeout().map(Duration::toNanos).orElse(-1L);
+        final BooleanSupplier cancelled = config.getCancellation().orElse(null);
+        if (timeout < 0 && cancelled == null && !config.isInterruptible()) {
+            return null;
+        }
+
+        return new Cancellation(timeout, cancelled, config.isInterruptible());
+    }
+
+    /**
+     * @throws KDLCancelledException if the parse should be abandoned
+     */
+    void check() {
+        if (interruptible && Thread.currentThread().isInterrupted()) {
+            throw new KDLCancelledException("Parsing was interrupted");
+        } else if (timeout >= 0 && System.nanoTime() - deadline >= 0) {
+            throw new KDLCancelledException(String.format("Parsing exceeded its timeout of %d ms",
+                    TimeUnit.NANOSECONDS.toMillis(timeout)));
+        } else if (cancelled != null && cancelled.getAsBoolean()) {
+            throw new KDLCancelledException("Parsing was cancelled");
+        }
+    }
+}
@@ -4,10 +4,56 @@ import java.util.Optional;
 
 /**
  * Various functions used during parsing and printing to check character membership in various character classes.
+ * Characters in the Latin-1 range, which make up nearly all of most documents, are classified with a single lookup in
+ * a table of flags, and the rest by the rules the table is built from.
  * <p>
  * Also contains functions for transforming characters into their escape sequences.
  */
 public class CharClasses {
+    private static final int NUMERIC_START = 1;
+    private static final int BARE_ID_CHAR = 1 << 1;
+    private static final int BARE_ID_START = 1 << 2;
+    private static final int DECIMAL = 1 << 3;
+    private static final int HEX = 1 << 4;
+    private static final int OCTAL = 1 << 5;
+    private static final int BINARY = 1 << 6;
+    private static final int LITERAL = 1 << 7;
+    private static final int LINESPACE = 1 << 8;
+    private static final int WHITESPACE = 1 << 9;
+    private static final int PRINTABLE_ASCII = 1 << 10;
+    private static final int COMMON_ESCAPE = 1 << 11;
+    private static final int MUST_ESCAPE = 1 << 12;
+
+    private static final int TABLE_SIZE = 256;
+    private static final short[] FLAGS = new short[TABLE_SIZE];
+
+    static {
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            int flags = 0;
+            flags |= numericStart(c) ? NUMERIC_START : 0;
+            flags |= bareIdChar(c) ? BARE_ID_CHAR : 0;
+            flags |= bareIdChar(c) && !('0' <= c && c <= '9') ? BARE_ID_START : 0;
+            flags |= '0' <= c && c <= '9' ? DECIMAL : 0;
+            flags |= hexChar(c) ? HEX : 0;
+            flags |= '0' <= c && c <= '7' ? OCTAL : 0;
+            flags |= c == '0' || c == '1' ? BINARY : 0;
+            flags |= literalChar(c) ? LITERAL : 0;
+            flags |= linespace(c) ? LINESPACE : 0;
+            flags |= whitespace(c) ? WHITESPACE : 0;
+            flags |= ' ' <= c && c <= '~' ? PRINTABLE_ASCII : 0;
+            flags |= commonEscape(c) ? COMMON_ESCAPE : 0;
+            flags |= c == '\\' || c == '"' ? MUST_ESCAPE : 0;
+            FLAGS[c] = (short) flags;
+        }
+    }
+
+    /**
+     * Check a character's membership in a class. Characters outside the table, including EOF, are in none of the
+     * classes held by the table alone.
+     */
+    private static boolean is(int c, int flag) {
+        return c >>> 8 == 0 && (FLAGS[c] & flag) != 0;
+    }
 
     /**
      * Check if the character is valid at the beginning of a numeric value
@@ -16,6 +62,10 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidNumericStart(int c) {
+        return is(c, NUMERIC_START);
+    }
+
+    private static boolean numericStart(int c) {
         switch (c) {
             case '+':
             case '-':
@@ -42,6 +92,10 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidBareIdChar(int c) {
+        return c >>> 8 == 0 ? (FLAGS[c] & BARE_ID_CHAR) != 0 : bareIdChar(c);
+    }
+
+    private static boolean bareIdChar(int c) {
         if (c <= 0x20 || c > 0x10FFFF) {
             return false;
         }
@@ -94,7 +148,7 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidBareIdStart(int c) {
-        return !isValidDecimalChar(c) && isValidBareIdChar(c);
+        return c >>> 8 == 0 ? (FLAGS[c] & BARE_ID_START) != 0 : bareIdChar(c);
     }
 
     /**
@@ -129,7 +183,7 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidDecimalChar(int c) {
-        return '0' <= c && c <= '9';
+        return is(c, DECIMAL);
     }
 
     /**
@@ -139,6 +193,10 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidHexChar(int c) {
+        return is(c, HEX);
+    }
+
+    private static boolean hexChar(int c) {
         switch (c) {
             case '0':
             case '1':
@@ -175,7 +233,7 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidOctalChar(int c) {
-        return '0' <= c && c <= '7';
+        return is(c, OCTAL);
     }
 
     /**
@@ -185,7 +243,7 @@ public class CharClasses {
      * @return true if the character is valid, false otherwise
      */
     public static boolean isValidBinaryChar(int c) {
-        return c == '0' || c == '1';
+        return is(c, BINARY);
     }
 
     /**
@@ -195,6 +253,10 @@ public class CharClasses {
      * @return true if the character appears in a literal, false otherwise
      */
     public static boolean isLiteralChar(int c) {
+        return is(c, LITERAL);
+    }
+
+    private static boolean literalChar(int c) {
         switch (c) {
             case 't':
             case 'r':
@@ -218,6 +280,10 @@ public class CharClasses {
      * @return true if the character is a unicode newline, false otherwise
      */
     public static boolean isUnicodeLinespace(int c) {
+        return c >>> 8 == 0 ? (FLAGS[c] & LINESPACE) != 0 : linespace(c);
+    }
+
+    private static boolean linespace(int c) {
         switch (c) {
             case '\r':
             case '\n':
@@ -238,6 +304,10 @@ public class CharClasses {
      * @return true if the character is unicode whitespace, false otherwise
      */
     public static boolean isUnicodeWhitespace(int c) {
+        return c >>> 8 == 0 ? (FLAGS[c] & WHITESPACE) != 0 : whitespace(c);
+    }
+
+    private static boolean whitespace(int c) {
         switch (c) {
             case '\u0009':
             case '\u0020':
@@ -270,7 +340,7 @@ public class CharClasses {
      * @return true if the character is printable unescaped, false otherwise
      */
     public static boolean isPrintableAscii(int c) {
-        return ' ' <= c && c <= '~';
+        return is(c, PRINTABLE_ASCII);
     }
 
     public static boolean isNonAscii(int c) {
@@ -278,7 +348,7 @@ public class CharClasses {
     }
 
     public static boolean mustEscape(int c) {
-        return c == '\\' || c == '"';
+        return is(c, MUST_ESCAPE);
     }
 
     private static final Optional<String> ESC_BACKSLASH = Optional.of("\\\\");
@@ -320,6 +390,10 @@ public class CharClasses {
     }
 
     public static boolean isCommonEscape(int c) {
+        return is(c, COMMON_ESCAPE);
+    }
+
+    private static boolean commonEscape(int c) {
         switch (c) {
             case '\\':
             case '\b':
@@ -0,0 +1,118 @@
+package dev.hbeck.kdl.parse;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Statistics about the structure of a document, gathered by {@link KDLParser#summarize(CharSequence)} in one pass
+ * without building it. Anything commented out with a slashdash isn't counted.
+ */
+public final class DocumentSummary {
+    private final long[] rootOffsets;
+    private final long nodes;
+    private final int maxDepth;
+    private final Map<String, Long> identifierCounts;
+    private final long args;
+    private final long props;
+    private final long stringBytes;
+
+    DocumentSummary(long[] rootOffsets, long nodes, int maxDepth, Map<String, Long> identifierCounts, long args,
+                    long props, long stringBytes) {
+        this.rootOffsets = rootOffsets;
+        this.nodes = nodes;
+        this.maxDepth = maxDepth;
+        this.identifierCounts = Collections.unmodifiableMap(identifierCounts);
+        this.args = args;
+        this.props = props;
+        this.stringBytes = stringBytes;
+    }
+
+    /**
+     * @return the number of nodes at the root of the document
+     */
+    public int getRootNodeCount() {
+        return rootOffsets.length;
+    }
+
+    /**
+     * @return the number of nodes at any depth in the document
+     */
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of levels of nodes in the document, 1 if it has only root nodes and 0 if it has none
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the number of nodes with each identifier
+     */
+    public Map<String, Long> getIdentifierCounts() {
+        return identifierCounts;
+    }
+
+    /**
+     * @return the number of arguments on all nodes in the document
+     */
+    public long getArgCount() {
+        return args;
+    }
+
+    /**
+     * @return the number of properties on all nodes in the document, counting a key repeated on one node each time
+     */
+    public long getPropCount() {
+        return props;
+    }
+
+    /**
+     * @return the number of bytes taken by the values of all string arguments and properties when encoded as UTF-8
+     */
+    public long getStringBytes() {
+        return stringBytes;
+    }
+
+    /**
+     * The position of each root node in the document, in bytes from its start when encoded as UTF-8. For documents
+     * read from bytes or files these are offsets into the source, so it may be split between root nodes.
+     *
+     * @return a copy of the offsets, in document order
+     */
+    public long[] getRootOffsets() {
+        return rootOffsets.clone();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DocumentSummary)) return false;
+        DocumentSummary that = (DocumentSummary) o;
+        return nodes == that.nodes && maxDepth == that.maxDepth && args == that.args && props == that.props
+                && stringBytes == that.stringBytes && Arrays.equals(rootOffsets, that.rootOffsets)
+                && identifierCounts.equals(that.identifierCounts);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hash(nodes, maxDepth, identifierCounts, args, props, stringBytes) + Arrays.hashCode(rootOffsets);
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentSummary{" +
+                "rootNodes=" + rootOffsets.length +
+                ", nodes=" + nodes +
+                ", maxDepth=" + maxDepth +
+                ", args=" + args +
+                ", props=" + props +
+                ", stringBytes=" + stringBytes +
+                ", identifierCounts=" + identifierCounts +
+                '}';
+    }
+}
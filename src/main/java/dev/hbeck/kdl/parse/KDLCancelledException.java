@@ -0,0 +1,11 @@
+package dev.hbeck.kdl.parse;
+
+/**
+ * Thrown if a parse is abandoned before it completes, because it ran past its timeout, was cancelled, or its thread
+ * was interrupted. The document may well be valid. See {@link ParseConfig.Builder#setTimeout(java.time.Duration)}.
+ */
+public class KDLCancelledException extends RuntimeException {
+    public KDLCancelledException(String message) {
+        super(message);
+    }
+}
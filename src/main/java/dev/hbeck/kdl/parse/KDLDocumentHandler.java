@@ -0,0 +1,265 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import dev.hbeck.kdl.objects.KDLObjectsFacade;
+import dev.hbeck.kdl.objects.KDLValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * The handler used by {@link KDLParser#parse(java.io.Reader)}, assembling the callbacks it receives into a
+ * {@link KDLDocument}. Instances may only be used for a single parse, unless reset between them.
+ */
+public class KDLDocumentHandler implements KDLHandler {
+    private static final int INITIAL_DEPTH = 16;
+    private static final int INITIAL_ENTRIES = 8;
+    // Nodes with more properties than this which weren't received in order are sorted through a TreeMap
+    private static final int MAX_INSERTION_SORT = 32;
+
+    private final List<KDLNode> nodes = new ArrayList<>();
+
+    // The nodes in progress, from the root node at index 0 to the current node at depth - 1. Frames beyond depth are
+    // kept to be reused by later nodes.
+    private Frame[] frames = new Frame[INITIAL_DEPTH];
+    private int depth = 0;
+
+    @Override
+    public void startNode(String identifier, Optional<String> type) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, frames.length * 2);
+        }
+        if (frames[depth] == null) {
+            frames[depth] = new Frame();
+        }
+        frames[depth++].start(identifier, type);
+    }
+
+    @Override
+    public void arg(KDLValue<?> value) {
+        currentFrame().addArg(value);
+    }
+
+    @Override
+    public void prop(String key, KDLValue<?> value) {
+        currentFrame().addProp(key, value);
+    }
+
+    @Override
+    public void startChildren() {
+        currentFrame().children = new ArrayList<>();
+    }
+
+    /**
+     * Set the current node's child to one loaded on demand, in place of startChildren() and the callbacks for its
+     * contents.
+     *
+     * @param childLoader supplies the child when it's first requested
+     */
+    void lazyChild(Supplier<Optional<KDLDocument>> childLoader) {
+        currentFrame().childLoader = childLoader;
+    }
+
+    /**
+     * @return true if any nodes have been completed in the current node's child block
+     */
+    boolean hasChildNodes() {
+        final List<KDLNode> children = currentFrame().children;
+        return children != null && !children.isEmpty();
+    }
+
+    /**
+     * End the current node without adding it to the document, in place of endNode()
+     */
+    void discardNode() {
+        currentFrame().clear();
+        depth--;
+    }
+
+    @Override
+    public void endNode() {
+        final KDLNode node = currentFrame().build();
+        depth--;
+
+        if (depth == 0) {
+            nodes.add(node);
+        } else {
+            currentFrame().children.add(node);
+        }
+    }
+
+    /**
+     * @return the document holding every root node completed so far
+     */
+    public KDLDocument getDocument() {
+        return new KDLDocument(new ArrayList<>(nodes));
+    }
+
+    /**
+     * Discard everything received so far, readying the handler for another parse
+     */
+    void reset() {
+        nodes.clear();
+        for (int i = 0; i < depth; i++) {
+            frames[i].clear();
+        }
+        depth = 0;
+    }
+
+    /**
+     * @return true if there's a completed root node which may be taken
+     */
+    boolean hasRootNode() {
+        return !nodes.isEmpty();
+    }
+
+    /**
+     * Remove the most recently completed root node from the handler
+     *
+     * @return the node
+     */
+    KDLNode takeNode() {
+        if (nodes.isEmpty()) {
+            throw new KDLInternalException("No completed root node to take");
+        }
+
+        return nodes.remove(nodes.size() - 1);
+    }
+
+    private Frame currentFrame() {
+        if (depth == 0) {
+            throw new KDLInternalException("Received node contents while not in a node");
+        }
+
+        return frames[depth - 1];
+    }
+
+    /**
+     * A node in progress, collecting its arguments and properties in arrays which are reused by the next node at the
+     * same depth. Each node is given exact-size copies, or shared empty arrays.
+     */
+    private static class Frame {
+        private static final String[] NO_KEYS = new String[0];
+        private static final KDLValue<?>[] NO_VALUES = new KDLValue<?>[0];
+
+        private String identifier;
+        private Optional<String> type;
+        private KDLValue<?>[] args = new KDLValue<?>[INITIAL_ENTRIES];
+        private int argCount;
+        private String[] keys = new String[INITIAL_ENTRIES];
+        private KDLValue<?>[] values = new KDLValue<?>[INITIAL_ENTRIES];
+        private int propCount;
+        // True while every key received is greater than the last, so the properties needn't be sorted
+        private boolean keysAscending;
+        private List<KDLNode> children;
+        private Supplier<Optional<KDLDocument>> childLoader;
+
+        private void start(String identifier, Optional<String> type) {
+            this.identifier = identifier;
+            this.type = type;
+            this.argCount = 0;
+            this.propCount = 0;
+            this.keysAscending = true;
+            this.children = null;
+            this.childLoader = null;
+        }
+
+        private void addArg(KDLValue<?> value) {
+            if (argCount == args.length) {
+                args = Arrays.copyOf(args, args.length * 2);
+            }
+            args[argCount++] = value;
+        }
+
+        private void addProp(String key, KDLValue<?> value) {
+            if (propCount == keys.length) {
+                keys = Arrays.copyOf(keys, keys.length * 2);
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (propCount > 0 && keysAscending && keys[propCount - 1].compareTo(key) >= 0) {
+                keysAscending = false;
+            }
+            keys[propCount] = key;
+            values[propCount++] = value;
+        }
+
+        private KDLNode build() {
+            if (!keysAscending) {
+                sortProps();
+            }
+
+            final KDLValue<?>[] nodeArgs = argCount == 0 ? NO_VALUES : Arrays.copyOf(args, argCount);
+            final String[] nodeKeys = propCount == 0 ? NO_KEYS : Arrays.copyOf(keys, propCount);
+            final KDLValue<?>[] nodeValues = propCount == 0 ? NO_VALUES : Arrays.copyOf(values, propCount);
+            final KDLNode node;
+            if (childLoader != null) {
+                node = KDLObjectsFacade.nodeFromArrays(identifier, type, nodeKeys, nodeValues, nodeArgs, null, childLoader);
+            } else {
+                final Optional<KDLDocument> child = children == null ? Optional.empty() : Optional.of(new KDLDocument(children));
+                node = KDLObjectsFacade.nodeFromArrays(identifier, type, nodeKeys, nodeValues, nodeArgs, child, null);
+            }
+
+            clear();
+            return node;
+        }
+
+        /**
+         * Sort the properties by key, keeping only the last value received for each
+         */
+        private void sortProps() {
+            if (propCount > MAX_INSERTION_SORT) {
+                final TreeMap<String, KDLValue<?>> sorted = new TreeMap<>();
+                for (int i = 0; i < propCount; i++) {
+                    sorted.put(keys[i], values[i]);
+                }
+
+                propCount = 0;
+                for (Map.Entry<String, KDLValue<?>> entry : sorted.entrySet()) {
+                    keys[propCount] = entry.getKey();
+                    values[propCount++] = entry.getValue();
+                }
+                return;
+            }
+
+            int sortedCount = 0;
+            for (int i = 0; i < propCount; i++) {
+                final String key = keys[i];
+                final KDLValue<?> value = values[i];
+                final int index = Arrays.binarySearch(keys, 0, sortedCount, key);
+                if (index >= 0) {
+                    values[index] = value;
+                } else {
+                    final int insertAt = -index - 1;
+                    System.arraycopy(keys, insertAt, keys, insertAt + 1, sortedCount - insertAt);
+                    System.arraycopy(values, insertAt, values, insertAt + 1, sortedCount - insertAt);
+                    keys[insertAt] = key;
+                    values[insertAt] = value;
+                    sortedCount++;
+                }
+            }
+
+            Arrays.fill(keys, sortedCount, propCount, null);
+            Arrays.fill(values, sortedCount, propCount, null);
+            propCount = sortedCount;
+        }
+
+        /**
+         * Drop the references held for the node, leaving the arrays to be reused
+         */
+        private void clear() {
+            Arrays.fill(args, 0, argCount, null);
+            Arrays.fill(keys, 0, propCount, null);
+            Arrays.fill(values, 0, propCount, null);
+            identifier = null;
+            type = null;
+            children = null;
+            childLoader = null;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * A parser accepting a document in arbitrary pieces as they arrive, for use where blocking on a Reader isn't possible
+ * such as on a non-blocking network event loop. Input may be split anywhere, including in the middle of a string,
+ * escape, comment, or UTF-8 sequence. Each root node is passed on to the handler as soon as the line it ends on is
+ * complete, and only the text of the root node in progress is held between calls. That text includes all of the
+ * node's children, so a document made of one large root node is held in full until it's complete, however it's fed.
+ * <p>
+ * The handler receives the same callbacks it would from {@link KDLParser#parse(java.io.Reader, KDLHandler)}, with
+ * endDocument() called from finish(). Instances are not safe to share between threads, and may not be used again
+ * after finish() or after any call has thrown. Obtain one from {@link KDLParser#feedParser(KDLHandler)}.
+ */
+public class KDLFeedParser {
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final KDLParser parser;
+    private final KDLHandler handler;
+    private final StructureScanner scanner = new StructureScanner();
+    // Polled by every call, so the parser's timeout runs from the feed parser's creation
+    private final Cancellation cancellation;
+
+    private Utf8Reader decoder = null;
+
+    // Input not yet parsed, which begins on line pendingLine
+    private char[] pending = new char[INITIAL_BUFFER_SIZE];
+    private int pendingLength = 0;
+    private int pendingLine = 1;
+    private int scanned = 0;
+
+    // Counted towards the parser's limits
+    private long parsedLength = 0;
+    private int nodes = 0;
+
+    private boolean closed = false;
+
+    KDLFeedParser(KDLParser parser, KDLHandler handler) {
+        this.parser = parser;
+        this.handler = handler;
+        this.cancellation = Cancellation.start(parser.getConfig());
+    }
+
+    /**
+     * Pass the next piece of the document to the parser, parsing any root nodes it completes.
+     *
+     * @param chars the array holding the input
+     * @param offset the index of the first character of the input
+     * @param length the number of characters of input
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public void feed(char[] chars, int offset, int length) {
+        checkOpen();
+        if (offset < 0 || length < 0 || offset > chars.length - length) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of bounds for length %d",
+                    offset, offset + length, chars.length));
+        }
+
+        ensureCapacity(length);
+        System.arraycopy(chars, offset, pending, pendingLength, length);
+        pendingLength += length;
+        parseCompleteNodes();
+    }
+
+    /**
+     * Pass the next piece of a UTF-8 encoded document to the parser, parsing any root nodes it completes. All remaining
+     * bytes in the buffer are consumed, a character split between calls is held until the rest of it arrives.
+     *
+     * @param bytes the input
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public void feed(ByteBuffer bytes) {
+        checkOpen();
+        if (decoder == null) {
+            decoder = new Utf8Reader();
+        }
+
+        decoder.feed(bytes);
+        decodePending(bytes.remaining());
+        parseCompleteNodes();
+    }
+
+    /**
+     * Signal the end of the document, parsing whatever remains of it.
+     *
+     * @throws KDLParseException if the document is invalid or incomplete for any reason
+     */
+    public void finish() {
+        checkOpen();
+        if (decoder != null) {
+            decoder.endInput();
+            decodePending(0);
+        }
+
+        parsePending(pendingLength);
+        closed = true;
+        handler.endDocument();
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The parser has finished or failed, and can't accept more input");
+        }
+    }
+
+    private void decodePending(int expected) {
+        try {
+            // UTF-8 never decodes to more chars than it has bytes, plus one for a pending low surrogate
+            ensureCapacity(expected + 1);
+            int read = 0;
+            while (read != KDLParser.EOF) {
+                ensureCapacity(1);
+                read = decoder.read(pending, pendingLength, pending.length - pendingLength);
+                if (read > 0) {
+                    pendingLength += read;
+                }
+            }
+        } catch (IOException e) {
+            closed = true;
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closed = true;
+            throw e;
+        }
+    }
+
+    private void parseCompleteNodes() {
+        final long maxInputSize = parser.getLimits().getMaxInputSize();
+        if (parsedLength + pendingLength > maxInputSize) {
+            closed = true;
+            throw new KDLParseException(String.format("Document exceeds the maximum size of %d characters", maxInputSize));
+        }
+
+        int end = -1;
+        int endLines = 0;
+        while (scanned < pendingLength) {
+            final int boundary = scanner.nextRootBoundary(pending, scanned, pendingLength);
+            if (boundary == -1) {
+                scanned = pendingLength;
+            } else {
+                scanned = boundary;
+                end = boundary;
+                endLines = scanner.getLines();
+                if (scanner.isUnbalanced()) {
+                    // Nothing fed afterwards can make this valid, so fail now rather than buffering the rest
+                    parsePending(end);
+                    closed = true;
+                    throw new KDLParseException("Unexpected '}' in root document");
+                }
+            }
+        }
+
+        if (end != -1) {
+            parsePending(end);
+            pendingLine = endLines + 1;
+        }
+    }
+
+    /**
+     * Parse the first length characters of the pending input, which must hold only complete root nodes, and drop them.
+     */
+    private void parsePending(int length) {
+        final KDLParseContext context = new KDLParseContext(pending, 0, length, pendingLine, false);
+        final KDLStreamReader reader = new KDLStreamReader(parser, context, KDLStreamReader.Scope.DOCUMENT, 0, nodes, null,
+                cancellation);
+        try {
+            while (reader.next() != KDLStreamReader.Event.END_DOCUMENT) {
+                reader.sendTo(handler);
+            }
+        } catch (IOException e) {
+            closed = true;
+            throw new RuntimeException(e);
+        } catch (RuntimeException e) {
+            closed = true;
+            throw e;
+        }
+
+        nodes = reader.getNodeCount();
+        parsedLength += length;
+        System.arraycopy(pending, length, pending, 0, pendingLength - length);
+        pendingLength -= length;
+        scanned -= length;
+    }
+
+    private void ensureCapacity(int additional) {
+        final int required = pendingLength + additional;
+        if (required > pending.length) {
+            pending = Arrays.copyOf(pending, Math.max(required, pending.length * 2));
+        }
+    }
+
+    /**
+     * Internal handler building each root node as it's completed and passing it on, used by
+     * {@link KDLParser#feedParser(Consumer)}.
+     */
+    static class NodeHandler extends KDLDocumentHandler {
+        private final Consumer<KDLNode> consumer;
+        private int depth = 0;
+
+        NodeHandler(Consumer<KDLNode> consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startNode(String identifier, Optional<String> type) {
+            depth++;
+            super.startNode(identifier, type);
+        }
+
+        @Override
+        public void endNode() {
+            super.endNode();
+            depth--;
+            if (depth == 0) {
+                consumer.accept(takeNode());
+            }
+        }
+    }
+}
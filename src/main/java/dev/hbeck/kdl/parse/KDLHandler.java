@@ -0,0 +1,43 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLValue;
+
+import java.util.Optional;
+
+/**
+ * Receives the contents of a document from {@link KDLParser#parse(java.io.Reader, KDLHandler)} as they're recognized,
+ * allowing callers to build their own objects directly rather than going through a
+ * {@link dev.hbeck.kdl.objects.KDLDocument}. All methods do nothing by default, so implementations need only override
+ * those they're interested in.
+ * <p>
+ * Callbacks arrive in document order. For each node startNode() is called, then arg() or prop() for each of its
+ * arguments and properties, then if the node has a child block startChildren(), the callbacks for each child node, and
+ * endChildren(). Finally endNode() is called. Once the whole document has been read endDocument() is called. Anything
+ * commented out with a slashdash is never passed to the handler.
+ * <p>
+ * Exceptions thrown from a handler abort the parse and are passed on to the caller unchanged.
+ *
+ * @see KDLDocumentHandler the handler used to build KDLDocuments
+ */
+public interface KDLHandler {
+    default void startNode(String identifier, Optional<String> type) {
+    }
+
+    default void arg(KDLValue<?> value) {
+    }
+
+    default void prop(String key, KDLValue<?> value) {
+    }
+
+    default void startChildren() {
+    }
+
+    default void endChildren() {
+    }
+
+    default void endNode() {
+    }
+
+    default void endDocument() {
+    }
+}
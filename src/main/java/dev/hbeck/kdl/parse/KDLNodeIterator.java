@@ -0,0 +1,64 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLNode;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Internal iterator parsing root nodes from a stream one at a time, as they're requested. Nothing is retained once a
+ * node has been returned.
+ */
+class KDLNodeIterator implements Iterator<KDLNode> {
+    private final KDLParser parser;
+    private final KDLStreamReader reader;
+    private final KDLDocumentHandler handler = new KDLDocumentHandler();
+
+    private KDLNode next = null;
+
+    KDLNodeIterator(KDLParser parser, KDLStreamReader reader) {
+        this.parser = parser;
+        this.reader = reader;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws UncheckedIOException if any error occurs while reading the stream
+     * @throws KDLParseException if the next node is invalid for any reason
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+
+        try {
+            while (reader.hasNext()) {
+                reader.next();
+                parser.sendToDocument(reader, handler);
+                if (handler.hasRootNode()) {
+                    next = handler.takeNode();
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return false;
+    }
+
+    @Override
+    public KDLNode next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final KDLNode node = next;
+        next = null;
+        return node;
+    }
+}
@@ -1,39 +1,141 @@
 package dev.hbeck.kdl.parse;
 
 import java.io.IOException;
-import java.io.PushbackReader;
 import java.io.Reader;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.Arrays;
 
 import static dev.hbeck.kdl.parse.CharClasses.isUnicodeLinespace;
+import static dev.hbeck.kdl.parse.CharClasses.isUnicodeWhitespace;
 import static dev.hbeck.kdl.parse.KDLParser.EOF;
 
 /**
- * Internal class wrapping the stream containing the document being read. Maintains a list of the last three lines read
- * in order to provide context in the event of a parse error.
+ * Internal class wrapping the document being read. The document is scanned out of a char array, either the source
+ * itself for in-memory documents or a reusable window that is refilled from a Reader as it's consumed. Tracks where the
+ * current line starts in order to provide context in the event of a parse error, reading the line back out of the array
+ * only if an error occurs.
  */
 public class KDLParseContext {
-    private final PushbackReader reader;
-    private final Deque<StringBuilder> lines;
+    static final int DEFAULT_BUFFER_SIZE = 8192;
 
-    private int positionInLine;
+    // The number of characters that may be pushed back with unread(), retained across window refills
+    private static final int PUSHBACK = 2;
+
+    private final Reader reader;
+    private char[] buffer;
+    private final int start;
+    // False if the caller reuses the source array once parsing is done, so nothing may keep a reference to it
+    private final boolean retainSource;
+
+    private int position;
+    private int limit;
+    private int mark = -1;
+    private int lineStart;
     private int lineNumber;
 
+    // The number of characters refills have dropped from the front of the window, and the most that may be read
+    private long dropped = 0;
+    private long maxLength = Long.MAX_VALUE;
+    private boolean tooLong = false;
+
+    // The start of the current line if refills have dropped it from the window, otherwise null
+    private StringBuilder droppedLine;
+
+    // Polled on each refill and every POLL_CHARS characters scanned, null if the parse can't be cancelled
+    private Cancellation cancellation;
+    private long polledAt = 0;
+
+    // The UTF-8 encoded length of the characters before countedTo, maintained only once countUtf8() is called
+    private boolean countingUtf8 = false;
+    private long utf8Bytes = 0;
+    private int countedTo;
+
+    // Set while only validating, when the first error ends the scan and is caught before anything needs its message
+    private boolean validating = false;
+
+    // Reused for building the strings and numbers which can't be taken from the window as they are
+    private StringBuilder scratch;
+
     private boolean invalidated;
 
     public KDLParseContext(Reader reader) {
-        this.lines = new ArrayDeque<>();
-        lines.push(new StringBuilder());
+        this(reader, DEFAULT_BUFFER_SIZE);
+    }
+
+    KDLParseContext(Reader reader, int bufferSize) {
+        this(reader, new char[Math.max(bufferSize, 0)]);
+    }
+
+    /**
+     * Creates a context reading through the provided window, which is overwritten as the stream is read and replaced
+     * by a larger one if a single token doesn't fit in it.
+     */
+    KDLParseContext(Reader reader, char[] window) {
+        if (window.length <= PUSHBACK) {
+            throw new IllegalArgumentException(String.format("Buffer size must be greater than %d", PUSHBACK));
+        }
 
-        this.reader = new PushbackReader(reader, 2);
-        this.positionInLine = 0;
+        this.reader = reader;
+        this.buffer = window;
+        this.start = 0;
+        this.retainSource = false;
+        this.position = 0;
+        this.limit = 0;
+        this.lineStart = 0;
         this.lineNumber = 1;
         this.invalidated = false;
     }
 
     /**
-     * Read a character from the underlying stream. Stores it in a buffer as well for error reporting.
+     * Creates a context scanning the provided characters in place. The array must not be modified while the context
+     * is in use, or, if values are parsed lazily, while any value parsed from it is in use.
+     *
+     * @param source the array holding the document
+     * @param offset the index of the first character of the document
+     * @param length the number of characters in the document
+     */
+    public KDLParseContext(char[] source, int offset, int length) {
+        this(source, offset, length, 1);
+    }
+
+    /**
+     * Creates a context scanning a piece of a larger document in place, numbering lines in errors from the line the
+     * piece starts on.
+     */
+    KDLParseContext(char[] source, int offset, int length, int firstLine) {
+        this(source, offset, length, firstLine, true);
+    }
+
+    /**
+     * Creates a context scanning a piece of a larger document in place, which may not be referenced by anything parsed
+     * from it if retainSource is false.
+     */
+    KDLParseContext(char[] source, int offset, int length, int firstLine, boolean retainSource) {
+        if (offset < 0 || length < 0 || offset > source.length - length) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of bounds for length %d",
+                    offset, offset + length, source.length));
+        }
+
+        this.reader = null;
+        this.buffer = source;
+        this.start = offset;
+        this.retainSource = retainSource;
+        this.position = offset;
+        this.limit = offset + length;
+        this.lineStart = offset;
+        this.lineNumber = firstLine;
+        this.invalidated = false;
+    }
+
+    public KDLParseContext(char[] source) {
+        this(source, 0, source.length);
+    }
+
+    public KDLParseContext(CharSequence source) {
+        this(toCharArray(source));
+    }
+
+    /**
+     * Read a character from the underlying stream.
      *
      * @return the character read or EOF if the stream has been exhausted
      * @throws IOException if any error is encountered in the stream read operation
@@ -43,20 +145,16 @@ public class KDLParseContext {
             throw new KDLInternalException("Attempt to read from an invalidated context");
         }
 
-        int c = reader.read();
-        if (c == EOF) {
-            return c;
-        } else if (isUnicodeLinespace(c)) {
+        if (position == limit && !fill()) {
+            return EOF;
+        }
+
+        final int c = buffer[position++];
+        if (isUnicodeLinespace(c)) {
             // We're cheating a bit here and not checking for CRLF
-            positionInLine = 0;
             lineNumber++;
-            lines.push(new StringBuilder());
-            while (lines.size() > 3) {
-                lines.removeLast();
-            }
-        } else {
-            positionInLine++;
-            lines.peek().appendCodePoint(c);
+            lineStart = position;
+            droppedLine = null;
         }
 
         return c;
@@ -73,22 +171,22 @@ public class KDLParseContext {
             throw new KDLInternalException("Attempt to unread from an invalidated context");
         }
 
-        if (isUnicodeLinespace(c)) {
-            lines.pop();
-            lineNumber--;
-            positionInLine = lines.peek().length() - 1;
-        } else if (c == EOF) {
+        if (c == EOF) {
             throw new KDLInternalException("Attempted to unread() EOF");
-        } else {
-            positionInLine--;
-            final StringBuilder currLine = lines.peek();
-            currLine.deleteCharAt(currLine.length() - 1);
+        } else if (position == start) {
+            throw new KDLInternalException("Attempted to unread more than 2 characters in sequence");
+        } else if (buffer[position - 1] != c) {
+            throw new KDLInternalException(String.format("Attempted to unread '%s' but last read '%s'", (char) c, buffer[position - 1]));
         }
 
-        try {
-            reader.unread(c);
-        } catch (IOException e) {
-            throw new KDLInternalException("Attempted to unread more than 2 characters in sequence", e);
+        position--;
+        if (isUnicodeLinespace(c)) {
+            // Only the start of the previous line still in the array can be found again, which is enough for errors
+            lineNumber--;
+            lineStart = position;
+            while (lineStart > start && !isUnicodeLinespace(buffer[lineStart - 1])) {
+                lineStart--;
+            }
         }
     }
 
@@ -103,12 +201,89 @@ public class KDLParseContext {
             throw new KDLInternalException("Attempt to peek at an invalidated context");
         }
 
-        int c = reader.read();
-        if (c != -1) {
-            reader.unread(c);
+        if (position == limit && !fill()) {
+            return EOF;
         }
 
-        return c;
+        return buffer[position];
+    }
+
+    /**
+     * Limit the number of characters the context reads, after which it fails with a KDLParseException.
+     *
+     * @param maxLength the maximum length of the document
+     */
+    void limitLength(long maxLength) {
+        this.maxLength = maxLength;
+        if (reader == null) {
+            checkLength();
+        }
+    }
+
+    private void checkLength() {
+        if (dropped + limit - start > maxLength) {
+            tooLong = true;
+            throw error("Document exceeds the maximum size of %d characters", maxLength);
+        }
+    }
+
+    /**
+     * @return the number of characters read from the start of the document, for measuring the tokens being parsed
+     */
+    long getOffset() {
+        return dropped + position - start;
+    }
+
+    /**
+     * Skip the run of whitespace, not including newlines, at the current position. Runs are scanned straight out of
+     * the array and stop at the end of the window, so the caller must still handle whatever follows with read() and
+     * peek(), including any remainder of the run after a refill.
+     */
+    void skipWhitespace() {
+        int i = position;
+        while (i < limit && isUnicodeWhitespace(buffer[i])) {
+            i++;
+        }
+        position = i;
+    }
+
+    /**
+     * Skip up to the next newline, as for the body of a line comment. See skipWhitespace() for how runs end, and
+     * runEnd() for how they're cut short when the parse may be cancelled.
+     */
+    void skipToLinespace() {
+        final int end = runEnd();
+        int i = position;
+        while (i < end && !isUnicodeLinespace(buffer[i])) {
+            i++;
+        }
+        position = i;
+    }
+
+    /**
+     * Take the run of characters up to the next quote or newline, or backslash if the string has escapes, appending
+     * them to the provided builder if there is one. See skipToLinespace() for how runs end.
+     *
+     * @param stringBuilder the builder to append to, or null to only skip the run
+     * @param escapes true if backslashes end the run
+     * @param until the offset in the document at which the run ends regardless, so that neither the scan nor the copy
+     *              goes past the string length limit
+     */
+    void takeStringRun(StringBuilder stringBuilder, boolean escapes, long until) {
+        final int end = (int) Math.min(runEnd(), position + Math.max(0, until - getOffset()));
+        int i = position;
+        while (i < end) {
+            final char c = buffer[i];
+            if (c == '"' || (escapes && c == '\\') || isUnicodeLinespace(c)) {
+                break;
+            }
+            i++;
+        }
+
+        if (stringBuilder != null) {
+            stringBuilder.append(buffer, position, i - position);
+        }
+        position = i;
     }
 
     /**
@@ -125,16 +300,16 @@ public class KDLParseContext {
         invalidated = true;
 
         final StringBuilder stringBuilder = new StringBuilder();
-        final StringBuilder line = lines.peek();
-        if (line == null) {
-            throw new KDLInternalException("Attempted to report an error, but there were no line objects in the stack");
+        final StringBuilder line = new StringBuilder();
+        if (droppedLine != null) {
+            line.append(droppedLine);
         }
+        line.append(buffer, lineStart, position - lineStart);
+        final int positionInLine = line.length();
 
         try {
-            int c = reader.read();
-            while (!isUnicodeLinespace(c) && c != EOF) {
-                line.appendCodePoint(c);
-                c = reader.read();
+            while ((position < limit || fill()) && !isUnicodeLinespace(buffer[position])) {
+                line.append(buffer[position++]);
             }
         } catch (IOException e) {
             line.append("<Read Error>");
@@ -149,4 +324,366 @@ public class KDLParseContext {
 
         return stringBuilder.append('^').toString();
     }
+
+    /**
+     * Begin a token at the current position, whose characters are kept in the buffer until it's taken with
+     * internMarked() or appendMarked().
+     */
+    void mark() {
+        mark = position;
+    }
+
+    /**
+     * Take the characters read since mark() as a symbol, without copying them anywhere first.
+     *
+     * @param symbols the table to look the symbol up in
+     * @param trim the number of characters most recently read to leave out of the symbol
+     * @return the canonical instance of the symbol
+     */
+    String internMarked(SymbolTable symbols, int trim) {
+        final String symbol = symbols.intern(buffer, mark, position - trim - mark);
+        mark = -1;
+        return symbol;
+    }
+
+    /**
+     * Take the characters read since mark() by appending them to the provided builder.
+     *
+     * @param stringBuilder the builder to append to
+     * @param trim the number of characters most recently read to leave out
+     */
+    void appendMarked(StringBuilder stringBuilder, int trim) {
+        stringBuilder.append(buffer, mark, position - trim - mark);
+        mark = -1;
+    }
+
+    /**
+     * Take the characters read since mark() as a new String.
+     */
+    String takeMarked() {
+        final String marked = new String(buffer, mark, position - mark);
+        mark = -1;
+        return marked;
+    }
+
+    /**
+     * Release the characters read since mark() without taking them.
+     */
+    void clearMark() {
+        mark = -1;
+    }
+
+    /**
+     * Compare the characters read since mark() against a list of words, without copying them anywhere. The mark is
+     * left in place, so the characters must still be taken or released with clearMark().
+     *
+     * @param words the words to look for
+     * @return the index of the word matching the characters, or -1 if none do
+     */
+    int matchMarked(String[] words) {
+        final int length = position - mark;
+        int match = -1;
+        for (int i = 0; i < words.length && match == -1; i++) {
+            final String word = words[i];
+            if (word.length() == length) {
+                match = i;
+                for (int j = 0; j < length; j++) {
+                    if (buffer[mark + j] != word.charAt(j)) {
+                        match = -1;
+                        break;
+                    }
+                }
+            }
+        }
+
+        return match;
+    }
+
+    /**
+     * @return the line the context has read to, counting from the first line of the source
+     */
+    int getLine() {
+        return lineNumber;
+    }
+
+    /**
+     * @return the column the context has read to within the current line, counting from 1
+     */
+    int getColumn() {
+        final int column = (droppedLine == null ? 0 : droppedLine.length()) + position - lineStart;
+        return Math.max(column, 1);
+    }
+
+    /**
+     * Abandon whatever was being read and skip past the next newline, ';' or '}', for resuming a parse after an error.
+     *
+     * @return the character skipped past, or EOF if none was found
+     * @throws IOException if any error occurs while reading the stream
+     */
+    int skipToSync() throws IOException {
+        mark = -1;
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && c != ';' && c != '}' && !isUnicodeLinespace(c));
+
+        return c;
+    }
+
+    /**
+     * Start keeping count of the UTF-8 encoded length of everything read, for getUtf8Offset(). Must be called before
+     * anything is read.
+     */
+    void countUtf8() {
+        countingUtf8 = true;
+        countedTo = position;
+    }
+
+    /**
+     * @return the number of bytes the characters read from the start of the document take when encoded as UTF-8
+     */
+    long getUtf8Offset() {
+        if (!countingUtf8) {
+            throw new KDLInternalException("UTF-8 offsets requested from a context not counting them");
+        }
+
+        if (position >= countedTo) {
+            utf8Bytes += utf8Length(buffer, countedTo, position);
+        } else {
+            utf8Bytes -= utf8Length(buffer, position, countedTo);
+        }
+        countedTo = position;
+        return utf8Bytes;
+    }
+
+    /**
+     * @return the number of bytes the characters take when encoded as UTF-8
+     */
+    static long utf8Length(CharSequence chars) {
+        long length = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            length += utf8Length(chars.charAt(i));
+        }
+
+        return length;
+    }
+
+    private static long utf8Length(char[] chars, int from, int to) {
+        long length = 0;
+        for (int i = from; i < to; i++) {
+            length += utf8Length(chars[i]);
+        }
+
+        return length;
+    }
+
+    // Each half of a surrogate pair counts for half of the pair's four bytes
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800 || Character.isSurrogate(c)) {
+            return 2;
+        } else {
+            return 3;
+        }
+    }
+
+    /**
+     * @return the array holding the whole document if it's being scanned in place and may be referenced for as long as
+     *         the parsed objects live, or null if it's read from a stream or the array is reused afterwards
+     */
+    char[] getSource() {
+        return retainSource ? buffer : null;
+    }
+
+    /**
+     * @return the index in the source array of the next character to be read. Only meaningful if getSource() isn't null.
+     */
+    int getPosition() {
+        return position;
+    }
+
+    /**
+     * Refills the window from the reader, keeping the last few characters read so that they may still be unread, and
+     * the marked token if there is one. The window grows if the token fills it.
+     *
+     * @return true if at least one new character is available, false if the source is exhausted
+     * @throws IOException if any error occurs reading from the stream
+     */
+    private boolean fill() throws IOException {
+        if (reader == null || tooLong) {
+            return false;
+        } else if (cancellation != null) {
+            cancellation.check();
+        }
+
+        // Keep the marked token, if any, and the characters which may still be unread
+        int keepFrom = position - Math.min(position, PUSHBACK);
+        if (mark != -1) {
+            keepFrom = Math.min(keepFrom, mark);
+            mark -= keepFrom;
+        }
+
+        // Keep the start of the current line for error reporting, since the window may be refilled many times before
+        // the line ends
+        if (lineStart < keepFrom) {
+            if (droppedLine == null) {
+                droppedLine = new StringBuilder();
+            }
+            droppedLine.append(buffer, lineStart, keepFrom - lineStart);
+            lineStart = 0;
+        } else {
+            lineStart -= keepFrom;
+        }
+
+        if (countingUtf8) {
+            getUtf8Offset();
+            countedTo -= keepFrom;
+        }
+
+        dropped += keepFrom;
+        final int keep = position - keepFrom;
+        if (keep == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        System.arraycopy(buffer, keepFrom, buffer, 0, keep);
+        position = keep;
+        limit = keep;
+
+        int read;
+        do {
+            read = reader.read(buffer, limit, buffer.length - limit);
+        } while (read == 0);
+
+        if (read == EOF) {
+            return false;
+        }
+
+        limit += read;
+        checkLength();
+        return true;
+    }
+
+    /**
+     * Poll the provided check each time the window is refilled and every so often while scanning, aborting the parse
+     * once it's cancelled.
+     */
+    void setCancellation(Cancellation cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Create errors cheaply from now on, without stack traces and formatting their messages only when they're read.
+     */
+    void setValidating() {
+        this.validating = true;
+    }
+
+    /**
+     * Create the exception for a parse error to be thrown by the caller.
+     *
+     * @param format the error message, a format string if any args are provided
+     * @param args the values to format into the message
+     * @return the exception, which while validating is stackless and formats its message lazily
+     */
+    KDLParseException error(String format, Object... args) {
+        if (validating) {
+            return new DeferredParseException(format, args);
+        }
+
+        return new KDLParseException(args.length == 0 ? format : String.format(format, args));
+    }
+
+    /**
+     * Poll the cancellation check if at least POLL_CHARS characters have been read since it was last polled, for
+     * loops which may scan a long way through an in-memory document without a refill.
+     */
+    void poll() {
+        if (cancellation != null && getOffset() - polledAt >= Cancellation.POLL_CHARS) {
+            polledAt = getOffset();
+            cancellation.check();
+        }
+    }
+
+    /**
+     * @return where a run scanned straight out of the window must stop: the end of the window, or if the parse may be
+     *         cancelled, after at most POLL_CHARS characters so that the caller's loop polls during long runs
+     */
+    private int runEnd() {
+        if (cancellation == null) {
+            return limit;
+        }
+
+        poll();
+        return (int) Math.min(limit, (long) position + Cancellation.POLL_CHARS);
+    }
+
+    /**
+     * Get the scratch builder shared by everything parsed from this context, emptied. Its contents are only valid
+     * until the next call.
+     */
+    StringBuilder scratch() {
+        if (scratch == null) {
+            scratch = new StringBuilder();
+        } else {
+            scratch.setLength(0);
+        }
+
+        return scratch;
+    }
+
+    /**
+     * Use the provided builder as this context's scratch builder, so that its capacity is kept from one context to the
+     * next.
+     */
+    void setScratch(StringBuilder scratch) {
+        this.scratch = scratch;
+    }
+
+    static char[] toCharArray(CharSequence source) {
+        if (source instanceof String) {
+            return ((String) source).toCharArray();
+        }
+
+        return toCharArray(source, new char[source.length()]);
+    }
+
+    /**
+     * Copy the characters to the start of the provided array, or to a new one if they don't fit.
+     *
+     * @return the array holding the characters
+     */
+    static char[] toCharArray(CharSequence source, char[] reuse) {
+        final int length = source.length();
+        final char[] chars = reuse.length < length ? new char[length] : reuse;
+        if (source instanceof String) {
+            ((String) source).getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = source.charAt(i);
+            }
+        }
+
+        return chars;
+    }
+
+    /**
+     * A parse error raised while validating, which is thrown and caught once so skips the stack trace and only
+     * formats its message if it's read.
+     */
+    private static final class DeferredParseException extends KDLParseException {
+        private final String format;
+        private final Object[] args;
+
+        private DeferredParseException(String format, Object[] args) {
+            super(null, false);
+            this.format = format;
+            this.args = args;
+        }
+
+        @Override
+        public String getMessage() {
+            return args.length == 0 ? format : String.format(format, args);
+        }
+    }
 }
@@ -12,4 +12,11 @@ public class KDLParseException extends RuntimeException {
     public KDLParseException(String message, Throwable cause) {
         super(message, cause);
     }
+
+    /**
+     * For errors which are caught internally and whose stack traces are never needed
+     */
+    KDLParseException(String message, boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
 }
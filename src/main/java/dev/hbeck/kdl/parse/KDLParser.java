@@ -12,18 +12,30 @@ import dev.hbeck.kdl.objects.KDLValue;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Reader;
-import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static dev.hbeck.kdl.parse.CharClasses.isLiteralChar;
 import static dev.hbeck.kdl.parse.CharClasses.isUnicodeLinespace;
@@ -42,6 +54,20 @@ public class KDLParser {
     public static final int EOF = -1;
     public static final int MAX_UNICODE = 0x10FFFF;
 
+    // Passed as the slice start of a number which is being skipped rather than parsed
+    private static final int SKIP_NUMBER = -2;
+    private static final String[] LITERALS = {"true", "false", "null"};
+
+    // Untyped literals are immutable, so every occurrence shares one instance
+    private static final KDLBoolean TRUE = new KDLBoolean(true);
+    private static final KDLBoolean FALSE = new KDLBoolean(false);
+    private static final KDLNull NULL = new KDLNull();
+
+    // Documents are split into several chunks per thread so that uneven chunks even out, but no smaller than this
+    static final int MIN_PARALLEL_CHUNK_SIZE = 1 << 16;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
     enum WhitespaceResult {
         NO_WHITESPACE,
         END_NODE,
@@ -55,6 +81,31 @@ public class KDLParser {
         NOTHING
     }
 
+    /**
+     * An argument or property read by parseArgOrProp(), which may be reused from one to the next
+     */
+    static final class Entry {
+        // The property's key, or null if the entry is an argument
+        String key;
+        KDLValue<?> value;
+    }
+
+    private final ParseConfig config;
+    private final SymbolTable symbols;
+    private final ParseLimits limits;
+    private final Projection projection;
+
+    public KDLParser() {
+        this(ParseConfig.DEFAULT);
+    }
+
+    public KDLParser(ParseConfig config) {
+        this.config = config;
+        this.symbols = config.getSymbolTable().orElse(null);
+        this.limits = config.getLimits();
+        this.projection = config.getProjection().orElse(null);
+    }
+
     /**
      * Parse the given stream into a KDLDocument model object.
      *
@@ -64,24 +115,11 @@ public class KDLParser {
      * @throws KDLParseException if the document is invalid for any reason
      */
     public KDLDocument parse(Reader reader) throws IOException {
-        final KDLParseContext context = new KDLParseContext(reader);
-
-        try {
-            return parseDocument(context, true);
-        } catch (KDLParseException e) {
-            final String message = String.format("%s\n%s", e.getMessage(), context.getErrorLocationAndInvalidateContext());
-            throw new KDLParseException(message, e);
-        } catch (IOException e) {
-            throw new IOException(context.getErrorLocationAndInvalidateContext(), e);
-        } catch (KDLInternalException e) {
-            throw new KDLInternalException(context.getErrorLocationAndInvalidateContext(), e);
-        } catch (Throwable t) {
-            throw new KDLInternalException(String.format("Unexpected exception:\n%s", context.getErrorLocationAndInvalidateContext()), t);
-        }
+        return parse(new KDLParseContext(reader));
     }
 
     /**
-     * Parse the given stream into a KDLDocument model object.
+     * Parse the given stream of UTF-8 encoded bytes into a KDLDocument model object.
      *
      * @param stream the stream to parse from
      * @return the parsed document
@@ -89,7 +127,58 @@ public class KDLParser {
      * @throws KDLParseException if the document is invalid for any reason
      */
     public KDLDocument parse(InputStream stream) throws IOException {
-        return parse(new InputStreamReader(stream));
+        return parse(new KDLParseContext(new Utf8Reader(stream)));
+    }
+
+    /**
+     * Parse the given UTF-8 encoded file into a KDLDocument model object. The file is mapped into memory and decoded
+     * directly from the mapping, a window at a time for files larger than 2GB.
+     *
+     * @param path the file to parse
+     * @return the parsed document
+     * @throws IOException if any error occurs while reading the file
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return parse(new KDLParseContext(new Utf8Reader(channel)));
+        }
+    }
+
+    /**
+     * Parse the given UTF-8 encoded bytes into a KDLDocument model object.
+     *
+     * @param bytes the bytes to parse
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(byte[] bytes) {
+        return parse(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Parse a range of the given UTF-8 encoded bytes into a KDLDocument model object.
+     *
+     * @param bytes the array holding the document
+     * @param offset the index of the first byte of the document
+     * @param length the number of bytes in the document
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(byte[] bytes, int offset, int length) {
+        return parseInMemory(new KDLParseContext(new Utf8Reader(bytes, offset, length)));
+    }
+
+    /**
+     * Parse the remaining UTF-8 encoded bytes in the given buffer into a KDLDocument model object. Both heap and direct
+     * buffers are supported. The buffer's position is not modified.
+     *
+     * @param buffer the buffer to parse
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(ByteBuffer buffer) {
+        return parseInMemory(new KDLParseContext(new Utf8Reader(buffer)));
     }
 
     /**
@@ -100,146 +189,767 @@ public class KDLParser {
      * @throws KDLParseException if the document is invalid for any reason
      */
     public KDLDocument parse(String string) {
-        final StringReader reader = new StringReader(string);
-        try {
-            return parse(reader);
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+        return parseInMemory(new KDLParseContext(string));
+    }
+
+    /**
+     * Parse the given characters into a KDLDocument model object.
+     *
+     * @param chars the characters to parse
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(CharSequence chars) {
+        return parseInMemory(new KDLParseContext(chars));
+    }
+
+    /**
+     * Parse the given characters into a KDLDocument model object. The array is scanned in place, and must not be
+     * modified until the parse completes.
+     *
+     * @param chars the characters to parse
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(char[] chars) {
+        return parse(chars, 0, chars.length);
+    }
+
+    /**
+     * Parse a range of the given characters into a KDLDocument model object. The array is scanned in place, and must
+     * not be modified until the parse completes.
+     *
+     * @param chars the array holding the document
+     * @param offset the index of the first character of the document
+     * @param length the number of characters in the document
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parse(char[] chars, int offset, int length) {
+        return parseInMemory(new KDLParseContext(chars, offset, length));
+    }
+
+    /**
+     * Parse the given characters into a KDLDocument model object, splitting the document between its root nodes and
+     * parsing the pieces concurrently on the common ForkJoinPool. See {@link #parseParallel(char[], ForkJoinPool)}.
+     *
+     * @param chars the characters to parse
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parseParallel(CharSequence chars) {
+        return parseParallel(KDLParseContext.toCharArray(chars));
+    }
+
+    /**
+     * Parse the given characters into a KDLDocument model object, splitting the document between its root nodes and
+     * parsing the pieces concurrently on the common ForkJoinPool. See {@link #parseParallel(char[], ForkJoinPool)}.
+     *
+     * @param chars the characters to parse
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parseParallel(char[] chars) {
+        return parseParallel(chars, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Parse the given characters into a KDLDocument model object, splitting the document between its root nodes and
+     * parsing the pieces concurrently on the provided pool. A quick scan of the document, tracking only strings,
+     * comments, and child blocks, finds the places it can be split. Pieces are handed to the pool as they're found, and
+     * their nodes joined in document order. The result is identical to that of {@link #parse(char[])}, and small
+     * documents are simply parsed on the calling thread.
+     * <p>
+     * If the document is invalid, the error from the first invalid piece is thrown. The array is scanned in place, and
+     * must not be modified until the parse completes.
+     *
+     * @param chars the characters to parse
+     * @param pool the pool to parse pieces of the document on
+     * @return the parsed document
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parseParallel(char[] chars, ForkJoinPool pool) {
+        return parseParallel(chars, chars.length, pool, MIN_PARALLEL_CHUNK_SIZE);
+    }
+
+    /**
+     * Parse the given UTF-8 encoded file into a KDLDocument model object, parsing the document in parallel between its
+     * root nodes on the common ForkJoinPool. The file is mapped into memory and decoded to a char array first, see
+     * {@link #parseParallel(char[], ForkJoinPool)}. Files too large to decode into an array are parsed serially.
+     *
+     * @param path the file to parse
+     * @return the parsed document
+     * @throws IOException if any error occurs while reading the file
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public KDLDocument parseParallel(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > MAX_ARRAY_SIZE) {
+                return parse(new KDLParseContext(new Utf8Reader(channel)));
+            }
+
+            // UTF-8 never decodes to more chars than it has bytes
+            final char[] chars = new char[(int) size];
+            final Utf8Reader reader = new Utf8Reader(channel);
+            int length = 0;
+            while (length < chars.length) {
+                final int read = reader.read(chars, length, chars.length - length);
+                if (read == EOF) {
+                    break;
+                }
+                length += read;
+            }
+
+            return parseParallel(chars, length, ForkJoinPool.commonPool(), MIN_PARALLEL_CHUNK_SIZE);
         }
     }
 
-    KDLDocument parseDocument(KDLParseContext context, boolean root) throws IOException {
-        int c = context.peek();
-        if (c == EOF) {
-            return new KDLDocument(Collections.emptyList());
+    KDLDocument parseParallel(char[] chars, int length, ForkJoinPool pool, int minChunkSize) {
+        // Checked up front, since each chunk only sees its own length
+        if (length > limits.getMaxInputSize()) {
+            throw new KDLParseException(String.format("Document exceeds the maximum size of %d characters", limits.getMaxInputSize()));
         }
 
-        final ArrayList<KDLNode> nodes = new ArrayList<>();
-        while (true) {
-            boolean skippingNode = false;
-            switch (consumeWhitespaceAndLinespace(context)) {
-                case NODE_SPACE:
-                case NO_WHITESPACE:
-                    break;
-                case END_NODE:
-                    c = context.peek();
-                    if (c == EOF) {
+        final int chunkCount = Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, length / minChunkSize);
+        if (chunkCount <= 1) {
+            return parse(chars, 0, length);
+        }
+
+        final int chunkSize = length / chunkCount;
+        final StructureScanner scanner = new StructureScanner();
+        final AtomicInteger documentNodes = newDocumentNodeCount();
+        final Cancellation cancellation = Cancellation.start(config);
+        final List<ForkJoinTask<Chunk>> chunks = new ArrayList<>();
+
+        int chunkStart = 0;
+        int chunkLine = 1;
+        int scanned = 0;
+        while (chunkStart < length) {
+            final int target = chunkStart + chunkSize;
+            int chunkEnd = length;
+            while (scanned < length) {
+                final int boundary = scanner.nextRootBoundary(chars, scanned, length);
+                if (boundary == -1) {
+                    scanned = length;
+                } else {
+                    scanned = boundary;
+                    if (boundary >= target) {
+                        chunkEnd = boundary;
                         break;
-                    } else {
-                        continue;
                     }
-                case SKIP_NEXT:
-                    skippingNode = true;
-                    break;
+                }
             }
 
-            c = context.peek();
-            if (c == EOF) {
-                if (root) {
-                    return new KDLDocument(nodes);
-                } else {
-                    throw new KDLParseException("Got EOF, expected a node or '}'");
-                }
-            } else if (c == '}') {
-                if (root) {
-                    throw new KDLParseException("Unexpected '}' in root document");
-                } else {
-                    return new KDLDocument(nodes);
+            final int offset = chunkStart;
+            final int chunkLength = chunkEnd - chunkStart;
+            final int firstLine = chunkLine;
+            chunks.add(pool.submit(() -> parseChunk(new KDLParseContext(chars, offset, chunkLength, firstLine), documentNodes,
+                    cancellation)));
+            chunkStart = chunkEnd;
+            chunkLine = scanner.getLines() + 1;
+        }
+
+        return joinChunks(chunks);
+    }
+
+    /**
+     * A piece of a document parsed in parallel, and the number of nodes read from it
+     */
+    private static final class Chunk {
+        private final KDLDocument document;
+        private final int nodes;
+
+        private Chunk(KDLDocument document, int nodes) {
+            this.document = document;
+            this.nodes = nodes;
+        }
+    }
+
+    private Chunk parseChunk(KDLParseContext context, AtomicInteger documentNodes, Cancellation cancellation) throws IOException {
+        final KDLStreamReader reader = new KDLStreamReader(this, context, KDLStreamReader.Scope.DOCUMENT, 0, 0,
+                documentNodes, cancellation);
+        return new Chunk(buildDocument(reader), reader.getNodeCount());
+    }
+
+    /**
+     * Join the chunks' nodes in document order. Each chunk only counts its own nodes against the limit, so their sum
+     * is checked here.
+     */
+    private KDLDocument joinChunks(List<ForkJoinTask<Chunk>> chunks) {
+        final List<KDLNode> nodes = new ArrayList<>();
+        long nodeCount = 0;
+        try {
+            for (ForkJoinTask<Chunk> task : chunks) {
+                final Chunk chunk = task.get();
+                nodeCount += chunk.nodes;
+                if (nodeCount > limits.getMaxNodes()) {
+                    chunks.forEach(pending -> pending.cancel(false));
+                    throw new KDLParseException(String.format("Document exceeds the maximum of %d nodes", limits.getMaxNodes()));
                 }
+                nodes.addAll(chunk.document.getNodes());
             }
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new KDLInternalException("Unexpected exception parsing document", cause);
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            Thread.currentThread().interrupt();
+            throw new KDLCancelledException("Parsing was interrupted");
+        }
+
+        return new KDLDocument(nodes);
+    }
+
+    /**
+     * Parse the given stream, passing its contents to the provided handler as they're read rather than building a
+     * KDLDocument.
+     *
+     * @param reader the stream reader to parse from
+     * @param handler the handler to receive the document's contents
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public void parse(Reader reader, KDLHandler handler) throws IOException {
+        parse(new KDLParseContext(reader), handler);
+    }
+
+    /**
+     * Parse the given stream of UTF-8 encoded bytes, passing its contents to the provided handler as they're read
+     * rather than building a KDLDocument.
+     *
+     * @param stream the stream to parse from
+     * @param handler the handler to receive the document's contents
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public void parse(InputStream stream, KDLHandler handler) throws IOException {
+        parse(new KDLParseContext(new Utf8Reader(stream)), handler);
+    }
+
+    /**
+     * Parse the given characters, passing their contents to the provided handler as they're read rather than building
+     * a KDLDocument.
+     *
+     * @param chars the characters to parse
+     * @param handler the handler to receive the document's contents
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public void parse(CharSequence chars, KDLHandler handler) {
+        try {
+            parse(new KDLParseContext(chars), handler);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Lazily parse the root nodes of the given stream. Each node is read from the stream only when requested from the
+     * iterator, and is not retained by the parser afterwards, so arbitrarily long documents may be processed in
+     * constant memory. Parse errors are thrown from the iterator when the offending node is reached, and I/O errors are
+     * wrapped in an {@link java.io.UncheckedIOException}.
+     *
+     * @param reader the stream reader to parse from
+     * @return an iterator over the document's root nodes
+     */
+    public Iterator<KDLNode> parseNodes(Reader reader) {
+        return new KDLNodeIterator(this, streamReader(reader));
+    }
+
+    /**
+     * Lazily parse the root nodes of the given stream of UTF-8 encoded bytes. See {@link #parseNodes(Reader)}.
+     *
+     * @param stream the stream to parse from
+     * @return an iterator over the document's root nodes
+     */
+    public Iterator<KDLNode> parseNodes(InputStream stream) {
+        return new KDLNodeIterator(this, streamReader(stream));
+    }
+
+    /**
+     * Lazily parse the root nodes of the given stream as a sequential, ordered Stream. See {@link #parseNodes(Reader)}.
+     *
+     * @param reader the stream reader to parse from
+     * @return a stream of the document's root nodes
+     */
+    public Stream<KDLNode> streamNodes(Reader reader) {
+        return toStream(parseNodes(reader));
+    }
+
+    /**
+     * Lazily parse the root nodes of the given stream of UTF-8 encoded bytes as a sequential, ordered Stream. See
+     * {@link #parseNodes(Reader)}.
+     *
+     * @param stream the stream to parse from
+     * @return a stream of the document's root nodes
+     */
+    public Stream<KDLNode> streamNodes(InputStream stream) {
+        return toStream(parseNodes(stream));
+    }
+
+    private static Stream<KDLNode> toStream(Iterator<KDLNode> iterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Get a cursor yielding the contents of the given stream one event at a time, without building a KDLDocument.
+     *
+     * @param reader the stream reader to parse from
+     * @return the stream reader, positioned before the first event
+     */
+    public KDLStreamReader streamReader(Reader reader) {
+        return new KDLStreamReader(this, new KDLParseContext(reader));
+    }
+
+    /**
+     * Get a cursor yielding the contents of the given stream of UTF-8 encoded bytes one event at a time, without
+     * building a KDLDocument.
+     *
+     * @param stream the stream to parse from
+     * @return the stream reader, positioned before the first event
+     */
+    public KDLStreamReader streamReader(InputStream stream) {
+        return new KDLStreamReader(this, new KDLParseContext(new Utf8Reader(stream)));
+    }
+
+    /**
+     * Get a cursor yielding the contents of the given characters one event at a time, without building a KDLDocument.
+     *
+     * @param chars the characters to parse
+     * @return the stream reader, positioned before the first event
+     */
+    public KDLStreamReader streamReader(CharSequence chars) {
+        return new KDLStreamReader(this, new KDLParseContext(chars));
+    }
+
+    /**
+     * Get a parser accepting a document in pieces as they become available, passing its contents to the provided
+     * handler as each root node is completed.
+     *
+     * @param handler the handler to receive the document's contents
+     * @return the feed parser
+     */
+    public KDLFeedParser feedParser(KDLHandler handler) {
+        return new KDLFeedParser(this, handler);
+    }
+
+    /**
+     * Get a parser accepting a document in pieces as they become available, passing each root node to the provided
+     * consumer as soon as it's completed.
+     *
+     * @param nodeConsumer the consumer to receive the document's root nodes
+     * @return the feed parser
+     */
+    public KDLFeedParser feedParser(Consumer<KDLNode> nodeConsumer) {
+        return new KDLFeedParser(this, new KDLFeedParser.NodeHandler(nodeConsumer));
+    }
+
+    /**
+     * Get a session for parsing many documents one after another with this parser's configuration, reusing the buffers
+     * each parse needs rather than allocating them anew.
+     *
+     * @return the session, which must not be used by more than one thread at a time
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    /**
+     * Check that the given characters are a valid KDL document without building any part of it. Invalid documents are
+     * reported in the result rather than by throwing, and the location of the error isn't rendered into the message.
+     *
+     * @param chars the characters to check
+     * @return the result of the check
+     */
+    public ValidationResult validate(CharSequence chars) {
+        return validateInMemory(new KDLParseContext(chars));
+    }
+
+    /**
+     * Check that the given UTF-8 encoded bytes are a valid KDL document without building any part of it.
+     *
+     * @param bytes the bytes to check
+     * @return the result of the check
+     */
+    public ValidationResult validate(byte[] bytes) {
+        return validateInMemory(new KDLParseContext(new Utf8Reader(bytes, 0, bytes.length)));
+    }
+
+    /**
+     * Check that the given stream holds a valid KDL document without building any part of it.
+     *
+     * @param reader the stream reader to check
+     * @return the result of the check
+     * @throws IOException if any error occurs while reading the stream
+     */
+    public ValidationResult validate(Reader reader) throws IOException {
+        return validate(new KDLParseContext(reader));
+    }
+
+    /**
+     * Check that the given stream of UTF-8 encoded bytes holds a valid KDL document without building any part of it.
+     *
+     * @param stream the stream to check
+     * @return the result of the check
+     * @throws IOException if any error occurs while reading the stream
+     */
+    public ValidationResult validate(InputStream stream) throws IOException {
+        return validate(new KDLParseContext(new Utf8Reader(stream)));
+    }
 
-            final Optional<KDLNode> node = parseNode(context);
-            consumeAfterNode(context);
-            if (!skippingNode && node.isPresent()) {
-                nodes.add(node.get());
+    /**
+     * Parse the given characters into a KDLDocument model object, carrying on past any errors rather than throwing.
+     * After an error the parse resumes at the next newline, ';', or '}', and every error found is reported alongside
+     * as much of the document as could be parsed. Child blocks and values are always parsed eagerly, and any projection
+     * is ignored.
+     *
+     * @param chars the characters to parse
+     * @return the parsed document and any errors found
+     */
+    public RecoveredDocument parseRecovering(CharSequence chars) {
+        try {
+            return parseRecovering(new KDLParseContext(chars));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Parse the given stream into a KDLDocument model object, carrying on past any errors rather than throwing. See
+     * {@link #parseRecovering(CharSequence)}.
+     *
+     * @param reader the stream reader to parse from
+     * @return the parsed document and any errors found
+     * @throws IOException if any error occurs while reading the stream
+     */
+    public RecoveredDocument parseRecovering(Reader reader) throws IOException {
+        return parseRecovering(new KDLParseContext(reader));
+    }
+
+    /**
+     * Parse the given stream of UTF-8 encoded bytes into a KDLDocument model object, carrying on past any errors rather
+     * than throwing. See {@link #parseRecovering(CharSequence)}. Invalid UTF-8 can't be recovered from, the document
+     * ends where it's found.
+     *
+     * @param stream the stream to parse from
+     * @return the parsed document and any errors found
+     * @throws IOException if any error occurs while reading the stream
+     */
+    public RecoveredDocument parseRecovering(InputStream stream) throws IOException {
+        return parseRecovering(new KDLParseContext(new Utf8Reader(stream)));
+    }
+
+    private RecoveredDocument parseRecovering(KDLParseContext context) throws IOException {
+        final KDLStreamReader reader = new KDLStreamReader(this, context);
+        final KDLDocumentHandler handler = new KDLDocumentHandler();
+        final List<ParseDiagnostic> diagnostics = new ArrayList<>();
+        while (reader.hasNext()) {
+            try {
+                reader.advance();
+                reader.sendTo(handler);
+            } catch (KDLParseException | KDLInternalException e) {
+                addDiagnostic(diagnostics, context, e);
+                try {
+                    reader.recover(handler);
+                } catch (KDLParseException | KDLInternalException recoveryError) {
+                    addDiagnostic(diagnostics, context, recoveryError);
+                    reader.abandon(handler);
+                }
             }
         }
+
+        return new RecoveredDocument(handler.getDocument(), diagnostics);
     }
 
-    Optional<KDLNode> parseNode(KDLParseContext context) throws IOException {
-        final List<KDLValue<?>> args = new ArrayList<>();
-        final Map<String, KDLValue<?>> properties = new TreeMap<>();
-        Optional<KDLDocument> child = Optional.empty();
+    // An error in decoding the stream is thrown again by every read, so is only reported once
+    private static void addDiagnostic(List<ParseDiagnostic> diagnostics, KDLParseContext context, RuntimeException e) {
+        final ParseDiagnostic diagnostic = new ParseDiagnostic(context.getOffset(), context.getLine(), context.getColumn(),
+                e.getMessage());
+        if (diagnostics.isEmpty() || !diagnostics.get(diagnostics.size() - 1).equals(diagnostic)) {
+            diagnostics.add(diagnostic);
+        }
+    }
 
-        int c = context.peek();
-        if (c == '}') {
-            return Optional.empty();
+    /**
+     * Gather statistics about the structure of the given characters in one pass, without building the document.
+     *
+     * @param chars the characters to summarize
+     * @return the document's summary
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public DocumentSummary summarize(CharSequence chars) {
+        try {
+            return summarize(new KDLParseContext(chars), null);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        final Optional<String> type = parseTypeIfPresent(context);
-        final String identifier = parseIdentifier(context);
-        while (true) {
-            final WhitespaceResult whitespaceResult = consumeWhitespaceAndBlockComments(context);
-            c = context.peek();
-            switch (whitespaceResult) {
-                case NODE_SPACE:
-                    if (c == '{') {
-                        child = Optional.of(parseChild(context));
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } else if (isUnicodeLinespace(c)) {
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } if (c == EOF) {
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } else {
-                        final KDLObject object = parseArgOrProp(context);
-                        if (object instanceof KDLValue) {
-                            args.add((KDLValue<?>) object);
-                        } else if (object instanceof KDLProperty) {
-                            final KDLProperty property = (KDLProperty) object;
-                            properties.put(property.getKey(), property.getValue());
-                        } else {
-                            throw new KDLInternalException(
-                                    String.format("Unexpected type found, expected property, arg, or child: '%s' type: %s",
-                                            object.toKDL(), object.getClass().getSimpleName()));
-                        }
-                    }
-                    break;
+    }
 
-                case NO_WHITESPACE:
-                    if (c == '{') {
-                        child = Optional.of(parseChild(context));
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } else if (isUnicodeLinespace(c) || c == EOF) {
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } else if (c == ';') {
-                        context.read();
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } else {
-                        throw new KDLParseException(String.format("Unexpected character: '%s' (\\u%06X)", (char) c, c));
-                    }
-                case END_NODE:
-                    return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                case SKIP_NEXT:
-                    if (c == '{') {
-                        parseChild(context); //Ignored
-                        return Optional.of(new KDLNode(identifier, type, properties, args, child));
-                    } else if (isUnicodeLinespace(c)) {
-                        throw new KDLParseException("Unexpected skip marker before newline");
-                    } else if ( c == EOF) {
-                        throw new KDLParseException("Unexpected EOF following skip marker");
-                    } else {
-                        final KDLObject object = parseArgOrProp(context);
-                        if (!(object instanceof KDLValue) && !(object instanceof KDLProperty)) {
-                            throw new KDLInternalException(
-                                    String.format("Unexpected type found, expected property, arg, or child: '%s' type: %s",
-                                            object.toKDL(), object.getClass().getSimpleName()));
+    /**
+     * Gather statistics about the structure of the given UTF-8 encoded bytes in one pass, without building the
+     * document.
+     *
+     * @param bytes the bytes to summarize
+     * @return the document's summary
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public DocumentSummary summarize(byte[] bytes) {
+        try {
+            return summarize(new Utf8Reader(bytes, 0, bytes.length));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Gather statistics about the structure of the given stream in one pass, without building the document.
+     *
+     * @param reader the stream reader to summarize
+     * @return the document's summary
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public DocumentSummary summarize(Reader reader) throws IOException {
+        return summarize(new KDLParseContext(reader), null);
+    }
+
+    /**
+     * Gather statistics about the structure of the given stream of UTF-8 encoded bytes in one pass, without building
+     * the document.
+     *
+     * @param stream the stream to summarize
+     * @return the document's summary
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public DocumentSummary summarize(InputStream stream) throws IOException {
+        return summarize(new Utf8Reader(stream));
+    }
+
+    /**
+     * Gather statistics about the structure of the given UTF-8 encoded file in one pass, without building the
+     * document. The file is mapped into memory as it is for {@link #parse(Path)}.
+     *
+     * @param path the file to summarize
+     * @return the document's summary
+     * @throws IOException if any error occurs while reading the file
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public DocumentSummary summarize(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return summarize(new Utf8Reader(channel));
+        }
+    }
+
+    private DocumentSummary summarize(Utf8Reader source) throws IOException {
+        return summarize(new KDLParseContext(source), source);
+    }
+
+    /**
+     * Read the document's events, counting them as they pass. Values are still parsed in order to measure strings,
+     * but no nodes are built.
+     *
+     * @param source the decoder the context reads from if the document is UTF-8, so that a dropped byte order mark
+     *               can be counted in the offsets
+     */
+    private DocumentSummary summarize(KDLParseContext context, Utf8Reader source) throws IOException {
+        final KDLStreamReader reader = new KDLStreamReader(this, context);
+        reader.trackNodeOffsets();
+
+        final Map<String, long[]> counters = new HashMap<>();
+        long[] rootOffsets = new long[16];
+        int roots = 0;
+        long nodes = 0;
+        int maxDepth = 0;
+        long args = 0;
+        long props = 0;
+        long stringBytes = 0;
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case START_NODE:
+                    final int depth = reader.getDepth();
+                    if (depth == 0) {
+                        if (roots == rootOffsets.length) {
+                            rootOffsets = Arrays.copyOf(rootOffsets, roots * 2);
                         }
+                        rootOffsets[roots++] = reader.getNodeOffset();
                     }
+
+                    nodes++;
+                    maxDepth = Math.max(maxDepth, depth + 1);
+                    counters.computeIfAbsent(reader.getIdentifier(), identifier -> new long[1])[0]++;
+                    break;
+                case ARG:
+                    args++;
+                    stringBytes += stringBytes(reader.getValue());
+                    break;
+                case PROP:
+                    props++;
+                    stringBytes += stringBytes(reader.getValue());
+                    break;
+                default:
                     break;
             }
         }
+
+        rootOffsets = Arrays.copyOf(rootOffsets, roots);
+        if (source != null && source.skippedBom()) {
+            for (int i = 0; i < roots; i++) {
+                rootOffsets[i] += 3;
+            }
+        }
+
+        final Map<String, Long> identifierCounts = new HashMap<>(counters.size() * 2);
+        counters.forEach((identifier, count) -> identifierCounts.put(identifier, count[0]));
+        return new DocumentSummary(rootOffsets, nodes, maxDepth, identifierCounts, args, props, stringBytes);
+    }
+
+    private static long stringBytes(KDLValue<?> value) {
+        return value instanceof KDLString ? KDLParseContext.utf8Length(((KDLString) value).getChars()) : 0;
+    }
+
+    private ValidationResult validateInMemory(KDLParseContext context) {
+        try {
+            return validate(context);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Run the whole document through the skipping scanner, which checks the full grammar but builds no values. The
+     * first error ends the scan and is caught here, before anything formats its location. Errors are created without
+     * stack traces and their messages are only formatted for the result.
+     */
+    private ValidationResult validate(KDLParseContext context) throws IOException {
+        context.setValidating();
+        try {
+            new KDLStreamReader(this, context).skipDocument();
+            return ValidationResult.VALID;
+        } catch (KDLParseException | KDLInternalException e) {
+            return ValidationResult.invalid(context.getOffset(), context.getLine(), context.getColumn(), e.getMessage());
+        }
+    }
+
+    private KDLDocument parseInMemory(KDLParseContext context) {
+        try {
+            return parse(context);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private KDLDocument parse(KDLParseContext context) throws IOException {
+        return buildDocument(new KDLStreamReader(this, context));
+    }
+
+    KDLDocument buildDocument(KDLStreamReader reader) throws IOException {
+        return buildDocument(reader, new KDLDocumentHandler());
+    }
+
+    KDLDocument buildDocument(KDLStreamReader reader, KDLDocumentHandler handler) throws IOException {
+        while (reader.hasNext()) {
+            reader.next();
+            sendToDocument(reader, handler);
+        }
+
+        return handler.getDocument();
+    }
+
+    /**
+     * Pass the reader's current event on to a handler building a document, capturing child blocks rather than parsing
+     * them and skipping nodes outside the projection if so configured.
+     */
+    void sendToDocument(KDLStreamReader reader, KDLDocumentHandler handler) throws IOException {
+        final KDLStreamReader.Event event = reader.getEvent();
+        if (projection != null) {
+            final int depth = reader.getDocumentDepth();
+            if (event == KDLStreamReader.Event.START_NODE && !projection.matches(depth, reader.getIdentifier())) {
+                reader.skipNode();
+                return;
+            } else if (event == KDLStreamReader.Event.END_NODE && !projection.keepsSubtree(depth) && !handler.hasChildNodes()) {
+                handler.discardNode();
+                return;
+            }
+        }
+
+        if (config.shouldParseChildrenLazily() && event == KDLStreamReader.Event.START_CHILDREN
+                && (projection == null || projection.keepsSubtree(reader.getDocumentDepth()))) {
+            handler.lazyChild(reader.captureChildren());
+        } else {
+            reader.sendTo(handler);
+        }
+    }
+
+    private void parse(KDLParseContext context, KDLHandler handler) throws IOException {
+        final KDLStreamReader reader = new KDLStreamReader(this, context);
+        while (reader.hasNext()) {
+            reader.next();
+            reader.sendTo(handler);
+        }
+    }
+
+    ParseLimits getLimits() {
+        return limits;
+    }
+
+    ParseConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @return a count of the nodes in a document to share between the reader over it and those over any of its child
+     *         blocks parsed lazily later, or null if there's no need for one
+     */
+    AtomicInteger newDocumentNodeCount() {
+        return config.shouldParseChildrenLazily() && limits.getMaxNodes() != Integer.MAX_VALUE ? new AtomicInteger() : null;
+    }
+
+    KDLDocument parseDocument(KDLParseContext context) throws IOException {
+        return parseFragment(new KDLStreamReader(this, context));
+    }
+
+    Optional<KDLNode> parseNode(KDLParseContext context) throws IOException {
+        if (context.peek() == '}') {
+            return Optional.empty();
+        }
+
+        final List<KDLNode> nodes = parseFragment(new KDLStreamReader(this, context, KDLStreamReader.Scope.NODE)).getNodes();
+        return Optional.of(nodes.get(0));
+    }
+
+    KDLDocument parseChild(KDLParseContext context) throws IOException {
+        return parseFragment(new KDLStreamReader(this, context, KDLStreamReader.Scope.CHILD));
+    }
+
+    private KDLDocument parseFragment(KDLStreamReader reader) throws IOException {
+        final KDLDocumentHandler handler = new KDLDocumentHandler();
+        while (reader.hasNext()) {
+            reader.advance();
+            reader.sendTo(handler);
+        }
+
+        return handler.getDocument();
     }
 
     String parseIdentifier(KDLParseContext context) throws IOException {
         int c = context.peek();
         if (c == '"') {
-            return parseEscapedString(context);
+            return parseEscapedString(context, symbols);
         } else if (isValidBareIdStart(c)) {
             if (c == 'r') {
                 context.read();
                 int next = context.peek();
                 context.unread('r');
                 if (next == '"' || next == '#') {
-                    return parseRawString(context);
+                    final String rawString = parseRawString(context);
+                    return symbols == null ? rawString : symbols.intern(rawString);
                 } else {
                     return parseBareIdentifier(context);
                 }
@@ -247,108 +957,84 @@ public class KDLParser {
                 return parseBareIdentifier(context);
             }
         } else {
-            throw new KDLParseException(String.format("Expected an identifier, but identifiers can't start with '%s' (\\u%06X)", (char) c, c));
+            throw context.error("Expected an identifier, but identifiers can't start with '%s' (\\u%06X)", (char) c, c);
         }
     }
 
     KDLObject parseArgOrProp(KDLParseContext context) throws IOException {
-        final KDLObject object;
+        final Entry entry = new Entry();
+        parseArgOrProp(context, entry);
+        return entry.key == null ? entry.value : new KDLProperty(entry.key, entry.value);
+    }
+
+    /**
+     * Parse an argument or property into the provided entry, without building a KDLProperty or any other intermediate
+     * object for it.
+     */
+    void parseArgOrProp(KDLParseContext context, Entry entry) throws IOException {
         final Optional<String> type = parseTypeIfPresent(context);
+        // Strings are read without being wrapped in a KDLString, in case they turn out to be a property's key
+        String string = null;
+        KDLValue<?> value = null;
         boolean isBare = false;
         int c = context.peek();
         if (c == '"') {
-            object = new KDLString(parseEscapedString(context), type);
+            if (shouldSlice(context)) {
+                value = parseEscapedStringValue(context, type);
+            } else {
+                string = parseEscapedString(context);
+            }
         } else if (c == '+' || c == '-') {
             final int sign = c;
             context.read();
             c = context.peek();
             context.unread(sign);
             if (isValidDecimalChar(c)) {
-                object = parseNumber(context, type);
+                value = parseNumber(context, type);
             } else {
                 isBare = true;
-                object = new KDLString(parseBareIdentifier(context));
+                string = parseBareIdentifier(context);
             }
         } else if (isValidNumericStart(c)) {
-            object = parseNumber(context, type);
-        } else if (isValidBareIdStart(c)) {
-            String strVal;
-            if (c == 'r') {
-                context.read();
-                int next = context.peek();
-                context.unread('r');
-                if (next == '"' || next == '#') {
-                    strVal = parseRawString(context);
-                } else {
-                    isBare = true;
-                    strVal = parseBareIdentifier(context);
-                }
-            } else {
-                isBare = true;
-                strVal = parseBareIdentifier(context);
-            }
-
-            if (isBare) {
-                if ("true".equals(strVal)) {
-                    object = new KDLBoolean(true, type);
-                } else if ("false".equals(strVal)) {
-                    object = new KDLBoolean(false, type);
-                } else if ("null".equals(strVal)) {
-                    object = new KDLNull(type);
-                } else {
-                    object = new KDLString(strVal, type);
-                }
+            value = parseNumber(context, type);
+        } else if (isRawStringStart(context)) {
+            if (shouldSlice(context)) {
+                value = parseRawStringValue(context, type);
             } else {
-                object = new KDLString(strVal, type);
+                string = parseRawString(context);
             }
-        } else {
-            throw new KDLParseException(String.format("Unexpected character: '%s'", (char) c));
-        }
-
-        if (object instanceof KDLString) {
-            c = context.peek();
-            if (c == '=') {
-                if (type.isPresent()) {
-                    throw new KDLParseException("Illegal type annotation before property, annotations should " +
-                            "follow the '=' and precede the value");
-                }
-
-                context.read();
-                final KDLValue<?> value = parseValue(context);
-                return new KDLProperty(((KDLString) object).getValue(), value);
-            } else if (isBare) {
-                throw new KDLParseException(String.format("Arguments may not be bare: '%s'", ((KDLString) object).getValue()));
+        } else if (isValidBareIdStart(c)) {
+            final String strVal = parseBareIdentifier(context);
+            if ("true".equals(strVal)) {
+                value = literal(TRUE, type);
+            } else if ("false".equals(strVal)) {
+                value = literal(FALSE, type);
+            } else if ("null".equals(strVal)) {
+                value = literal(NULL, type);
             } else {
-                return object;
+                isBare = true;
+                string = strVal;
             }
         } else {
-            return object;
-        }
-    }
-
-    KDLDocument parseChild(KDLParseContext context) throws IOException {
-        int c = context.read();
-        if (c != '{') {
-            throw new KDLInternalException(String.format("Expected '{' but found '%s'", (char) c));
-        }
-
-        final KDLDocument document = parseDocument(context, false);
-
-        switch (consumeWhitespaceAndLinespace(context)) {
-            case END_NODE:
-                throw new KDLInternalException("Got unexpected END_NODE");
-            case SKIP_NEXT:
-                throw new KDLParseException("Trailing skip markers are not allowed");
-            default:
-                //Fall through
+            throw context.error("Unexpected character: '%s'", (char) c);
         }
 
-        c = context.read();
-        if (c != '}') {
-            throw new KDLParseException("No closing brace found for child");
-        }
+        if ((string != null || value instanceof KDLString) && context.peek() == '=') {
+            if (type.isPresent()) {
+                throw context.error("Illegal type annotation before property, annotations should " +
+                        "follow the '=' and precede the value");
+            }
 
-        return document;
+            context.read();
+            final String key = string != null ? string : ((KDLString) value).getValue();
+            entry.key = symbols == null || isBare ? key : symbols.intern(key);
+            entry.value = parseValue(context);
+        } else if (isBare) {
+            throw context.error("Arguments may not be bare: '%s'", string);
+        } else {
+            entry.key = null;
+            entry.value = value != null ? value : new KDLString(string, type);
+        }
     }
 
     Optional<String> parseTypeIfPresent(KDLParseContext context) throws IOException {
@@ -359,7 +1045,7 @@ public class KDLParser {
             type = Optional.of(parseIdentifier(context));
             c = context.read();
             if (c != ')') {
-                throw new KDLParseException("Un-terminated type annotation, missing closing paren.");
+                throw context.error("Un-terminated type annotation, missing closing paren.");
             }
         }
 
@@ -370,16 +1056,18 @@ public class KDLParser {
         final Optional<String> type = parseTypeIfPresent(context);
         int c = context.peek();
         if (c == '"') {
-            return new KDLString(parseEscapedString(context), type);
+            return parseEscapedStringValue(context, type);
         } else if (c == 'r') {
-            return new KDLString(parseRawString(context), type);
+            return parseRawStringValue(context, type);
         } else if (isValidNumericStart(c)) {
             return parseNumber(context, type);
         } else {
-            final StringBuilder stringBuilder = new StringBuilder();
+            final StringBuilder stringBuilder = context.scratch();
+            final long start = context.getOffset();
 
             while (isLiteralChar(c)) {
                 context.read();
+                checkStringLength(context, start);
                 stringBuilder.appendCodePoint(c);
                 c = context.peek();
             }
@@ -387,18 +1075,172 @@ public class KDLParser {
             final String strVal = stringBuilder.toString();
             switch (strVal) {
                 case "true":
-                    return new KDLBoolean(true, type);
+                    return literal(TRUE, type);
                 case "false":
-                    return new KDLBoolean(false, type);
+                    return literal(FALSE, type);
                 case "null":
-                    return new KDLNull(type);
+                    return literal(NULL, type);
                 default:
-                    throw new KDLParseException(String.format("Unknown literal in property value: '%s' Expected 'true', 'false', or 'null'", strVal));
+                    throw context.error("Unknown literal in property value: '%s' Expected 'true', 'false', or 'null'", strVal);
+            }
+        }
+    }
+
+    /**
+     * Read past an identifier as parseIdentifier() would, checking it without building anything.
+     */
+    void skipIdentifier(KDLParseContext context) throws IOException {
+        final int c = context.peek();
+        if (c == '"') {
+            skipEscapedString(context);
+        } else if (isRawStringStart(context)) {
+            readRawString(context, null);
+        } else if (isValidBareIdStart(c)) {
+            skipBareIdentifier(context);
+            context.clearMark();
+        } else {
+            throw context.error("Expected an identifier, but identifiers can't start with '%s' (\\u%06X)", (char) c, c);
+        }
+    }
+
+    /**
+     * Read past a type annotation, if one is present, as parseTypeIfPresent() would.
+     *
+     * @return true if there was a type annotation
+     */
+    boolean skipTypeIfPresent(KDLParseContext context) throws IOException {
+        if (context.peek() != '(') {
+            return false;
+        }
+
+        context.read();
+        skipIdentifier(context);
+        if (context.read() != ')') {
+            throw context.error("Un-terminated type annotation, missing closing paren.");
+        }
+
+        return true;
+    }
+
+    /**
+     * Read past an argument or property as parseArgOrProp() would, checking it without building any objects.
+     *
+     * @return true if it was a property
+     */
+    boolean skipArgOrProp(KDLParseContext context) throws IOException {
+        final boolean typed = skipTypeIfPresent(context);
+        boolean isString = true;
+        boolean isBare = false;
+        int c = context.peek();
+        if (c == '"') {
+            skipEscapedString(context);
+        } else if (c == '+' || c == '-') {
+            final int sign = c;
+            context.read();
+            c = context.peek();
+            context.unread(sign);
+            if (isValidDecimalChar(c)) {
+                isString = false;
+                skipNumber(context);
+            } else {
+                isBare = true;
+                skipBareIdentifier(context);
+            }
+        } else if (isValidNumericStart(c)) {
+            isString = false;
+            skipNumber(context);
+        } else if (isRawStringStart(context)) {
+            readRawString(context, null);
+        } else if (isValidBareIdStart(c)) {
+            // true, false and null are values rather than bare strings
+            isBare = skipBareIdentifier(context) == -1;
+            isString = isBare;
+        } else {
+            throw context.error("Unexpected character: '%s'", (char) c);
+        }
+
+        // A bare identifier is still marked, to be named in the error if it turns out to be an argument
+        if (isString && context.peek() == '=') {
+            context.clearMark();
+            if (typed) {
+                throw context.error("Illegal type annotation before property, annotations should " +
+                        "follow the '=' and precede the value");
+            }
+
+            context.read();
+            skipValue(context);
+            return true;
+        } else if (isBare) {
+            throw context.error("Arguments may not be bare: '%s'", context.takeMarked());
+        }
+
+        context.clearMark();
+        return false;
+    }
+
+    /**
+     * Read past a value as parseValue() would, checking it without building anything.
+     */
+    void skipValue(KDLParseContext context) throws IOException {
+        skipTypeIfPresent(context);
+        int c = context.peek();
+        if (c == '"') {
+            skipEscapedString(context);
+        } else if (c == 'r') {
+            readRawString(context, null);
+        } else if (isValidNumericStart(c)) {
+            skipNumber(context);
+        } else {
+            final long start = context.getOffset();
+            context.mark();
+            while (isLiteralChar(c)) {
+                context.read();
+                checkStringLength(context, start);
+                c = context.peek();
+            }
+
+            if (context.matchMarked(LITERALS) == -1) {
+                throw context.error("Unknown literal in property value: '%s' Expected 'true', 'false', or 'null'",
+                        context.takeMarked());
             }
+            context.clearMark();
+        }
+    }
+
+    /**
+     * @return true if the context is positioned at the start of a raw string
+     */
+    private boolean isRawStringStart(KDLParseContext context) throws IOException {
+        if (context.peek() != 'r') {
+            return false;
+        }
+
+        context.read();
+        final int next = context.peek();
+        context.unread('r');
+        return next == '"' || next == '#';
+    }
+
+    private static KDLValue<?> literal(KDLValue<?> shared, Optional<String> type) {
+        if (!type.isPresent()) {
+            return shared;
         }
+
+        return shared instanceof KDLNull ? new KDLNull(type) : new KDLBoolean(((KDLBoolean) shared).getValue(), type);
     }
 
     KDLNumber parseNumber(KDLParseContext context, Optional<String> type) throws IOException {
+        return readNumber(context, type, shouldSlice(context) ? context.getPosition() : -1);
+    }
+
+    /**
+     * Read past a number as parseNumber() would, checking it without building its value.
+     */
+    void skipNumber(KDLParseContext context) throws IOException {
+        readNumber(context, Optional.empty(), SKIP_NUMBER);
+    }
+
+    private KDLNumber readNumber(KDLParseContext context, Optional<String> type, int start) throws IOException {
         final int radix;
         Predicate<Integer> legalChars = null;
 
@@ -437,34 +1279,56 @@ public class KDLParser {
         }
 
         if (radix == 10) {
-            return parseDecimalNumber(context, sign, type);
+            return parseDecimalNumber(context, sign, type, start);
         } else {
-            return parseNonDecimalNumber(context, legalChars, sign, radix, type);
+            return parseNonDecimalNumber(context, legalChars, sign, radix, type, start == SKIP_NUMBER);
         }
     }
 
     KDLNumber parseNonDecimalNumber(KDLParseContext context, Predicate<Integer> legalChars, char sign, int radix, Optional<String> type) throws IOException {
-        final StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(sign);
+        return parseNonDecimalNumber(context, legalChars, sign, radix, type, false);
+    }
+
+    /**
+     * Parse a number in binary, octal or hex. If skip is set the digits are only checked, and null is returned.
+     */
+    private KDLNumber parseNonDecimalNumber(KDLParseContext context, Predicate<Integer> legalChars, char sign, int radix,
+                                            Optional<String> type, boolean skip) throws IOException {
+        // Digits are accumulated into a long, and only written out for a BigInteger if they overflow it
+        StringBuilder stringBuilder = null;
+        long integer = 0;
+        int digits = 0;
 
         int c = context.peek();
         if (c == '_') {
-            throw new KDLParseException("The first character after radix indicator must not be '_'");
+            throw context.error("The first character after radix indicator must not be '_'");
         }
 
         while (legalChars.test(c) || c == '_') {
             context.read();
             if (c != '_') {
-                stringBuilder.appendCodePoint(c);
+                checkDigits(context, ++digits);
+                final int digit = Character.digit(c, radix);
+                if (stringBuilder != null) {
+                    stringBuilder.appendCodePoint(c);
+                } else if (!skip && integer > (Long.MAX_VALUE - digit) / radix) {
+                    stringBuilder = context.scratch().append(sign).append(Long.toString(integer, radix)).appendCodePoint(c);
+                } else {
+                    integer = integer * radix + digit;
+                }
             }
             c = context.peek();
         }
 
-        final String str = stringBuilder.toString();
-        if (str.length() == 1) { //str is only the radix
-            throw new KDLParseException("Must include at least one digit following radix marker");
+        if (digits == 0) {
+            throw context.error("Must include at least one digit following radix marker");
+        } else if (skip) {
+            return null;
+        } else if (stringBuilder == null) {
+            return KDLNumber.fromLong(sign == '-' ? -integer : integer, radix, type);
         }
 
+        final String str = stringBuilder.toString();
         try {
             return KDLNumber.from(new BigInteger(str, radix), radix, type);
         } catch (NumberFormatException e) {
@@ -472,20 +1336,40 @@ public class KDLParser {
         }
     }
 
-    // Unfortunately, in order to match the grammar we have to do a lot of parsing ourselves here
     KDLNumber parseDecimalNumber(KDLParseContext context, char sign, Optional<String> type) throws IOException {
-        final StringBuilder stringBuilder = new StringBuilder();
-        stringBuilder.append(sign);
+        return parseDecimalNumber(context, sign, type, -1);
+    }
+
+    /**
+     * Parse a decimal number. If sliceStart isn't -1, a number that can't be held in a long is kept as the range of the
+     * source from sliceStart, and only converted to a BigDecimal when its value is requested. If it's SKIP_NUMBER the
+     * number is only checked, and null is returned.
+     */
+    // Unfortunately, in order to match the grammar we have to do a lot of parsing ourselves here
+    KDLNumber parseDecimalNumber(KDLParseContext context, char sign, Optional<String> type, int sliceStart) throws IOException {
+        // Integers are accumulated into a long, and only written out for a BigDecimal if they have a fraction or
+        // exponent, or overflow it
+        // Nothing is built for skipped numbers, as with sliced ones
+        final boolean sliced = sliceStart != -1;
+        StringBuilder stringBuilder = null;
+        boolean wide = false;
+        long integer = 0;
+        int digits = 0;
 
         boolean inFraction = false;
         boolean inExponent = false;
         boolean signLegal = false;
         int exponentLen = 0;
+        int exponentDigits = 0;
+        // Tracked so skipped numbers can be held to the same range as BigDecimal, see exponentFits()
+        int fractionDigits = 0;
+        long exponent = 0;
+        boolean negativeExponent = false;
         int c = context.peek();
         if (c == '_' || c == 'E' || c == 'e') {
-            throw new KDLParseException(String.format("Decimal numbers may not begin with an '%s' character", (char) c));
+            throw context.error("Decimal numbers may not begin with an '%s' character", (char) c);
         } else if (c == '+' || c == '-') {
-            throw new KDLParseException("Numbers may not begin with multiple sign characters");
+            throw context.error("Numbers may not begin with multiple sign characters");
         }
 
         c = context.peek();
@@ -497,50 +1381,106 @@ public class KDLParser {
 
             if (c == '.') {
                 if (inFraction || inExponent) {
-                    throw new KDLParseException("The '.' character is not allowed in the fraction or exponent of a decimal");
+                    throw context.error("The '.' character is not allowed in the fraction or exponent of a decimal");
                 }
 
                 if (!isValidDecimalChar(context.peek())) {
-                    throw new KDLParseException("The character following '.' in a decimal number must be a decimal digit");
+                    throw context.error("The character following '.' in a decimal number must be a decimal digit");
                 }
 
                 inFraction = true;
                 signLegal = false;
-                stringBuilder.appendCodePoint(c);
+                if (!wide && !sliced) {
+                    stringBuilder = context.scratch().append(sign).append(integer);
+                }
+                wide = true;
+                if (stringBuilder != null) {
+                    stringBuilder.appendCodePoint(c);
+                }
             } else if (c == 'e' || c == 'E') {
                 if (inExponent) {
-                    throw new KDLParseException(String.format("Found '%s' in exponent", (char) c));
+                    throw context.error("Found '%s' in exponent", (char) c);
                 }
 
                 inExponent = true;
                 inFraction = false;
                 signLegal = true;
-                stringBuilder.appendCodePoint(c);
+                if (!wide && !sliced) {
+                    stringBuilder = context.scratch().append(sign).append(integer);
+                }
+                wide = true;
+                if (stringBuilder != null) {
+                    stringBuilder.appendCodePoint(c);
+                }
 
                 if (context.peek() == '_') {
-                    throw new KDLParseException("Character following exponent marker must not be '_'");
+                    throw context.error("Character following exponent marker must not be '_'");
                 }
             } else if (c == '_') {
                 signLegal = false;
             } else if (c == '+' || c == '-') {
                 if (!signLegal) {
-                    throw new KDLParseException(String.format("The sign character '%s' is not allowed here", (char) c));
+                    throw context.error("The sign character '%s' is not allowed here", (char) c);
                 }
 
                 signLegal = false;
-                stringBuilder.appendCodePoint(c);
+                negativeExponent = c == '-';
+                if (stringBuilder != null) {
+                    stringBuilder.appendCodePoint(c);
+                }
             } else {
                 signLegal = false;
-                stringBuilder.appendCodePoint(c);
+                checkDigits(context, ++digits);
+                final int digit = c - '0';
+                if (inExponent) {
+                    exponentDigits++;
+                    if (exponentLen <= 10) {
+                        exponent = exponent * 10 + digit;
+                    }
+                } else if (inFraction) {
+                    fractionDigits++;
+                }
+                if (wide) {
+                    if (stringBuilder != null) {
+                        stringBuilder.appendCodePoint(c);
+                    }
+                } else if (integer > (Long.MAX_VALUE - digit) / 10) {
+                    wide = true;
+                    if (!sliced) {
+                        stringBuilder = context.scratch().append(sign).append(integer).appendCodePoint(c);
+                    }
+                } else {
+                    integer = integer * 10 + digit;
+                }
             }
 
             c = context.peek();
         }
 
-        final String val = stringBuilder.toString();
+        final boolean fits = exponentFits(exponentLen, fractionDigits, negativeExponent ? -exponent : exponent);
+        if (sliceStart == SKIP_NUMBER) {
+            if (digits == 0 || !fits || (inExponent && exponentDigits == 0)) {
+                throw new KDLInternalException("Couldn't parse pre-vetted input into a number");
+            }
+            return null;
+        } else if (!wide) {
+            if (digits == 0) {
+                throw new KDLInternalException(String.format("Couldn't parse pre-vetted input '%s' into a number", sign));
+            }
+            return KDLNumber.fromLong(sign == '-' ? -integer : integer, 10, type);
+        }
+
+        final char[] source = context.getSource();
+        final int end = context.getPosition();
+        if (sliced && fits && (!inExponent || exponentDigits > 0)) {
+            return new KDLNumber(new NumberSlice(source, sliceStart, end - sliceStart), 10, type);
+        }
+
+        // Numbers which can't be converted are reported as they're parsed, even if they would otherwise be sliced
+        final String val = sliced ? new String(source, sliceStart, end - sliceStart) : stringBuilder.toString();
 
-        if (exponentLen > 10) { //BigDecimal only accepts exponents up to 10 digits
-            throw new KDLInternalException(String.format("Exponent too long to be represented as a BigDecimal: '%s'", val));
+        if (!fits) {
+            throw new KDLInternalException(String.format("Exponent can't be represented as a BigDecimal: '%s'", val));
         }
 
         try {
@@ -550,46 +1490,203 @@ public class KDLParser {
         }
     }
 
+    /**
+     * BigDecimal only accepts exponents of up to 10 digits which fit in an int, and only if the resulting scale, the
+     * number of fraction digits less the exponent, does too. Checked for skipped and sliced numbers as well as built
+     * ones, so that a number is valid or not however it's read.
+     */
+    private static boolean exponentFits(int exponentLen, int fractionDigits, long exponent) {
+        final long scale = fractionDigits - exponent;
+        return exponentLen <= 10 && exponent == (int) exponent && scale == (int) scale;
+    }
+
     String parseBareIdentifier(KDLParseContext context) throws IOException {
+        final long start = context.getOffset();
+        if (symbols != null) {
+            context.mark();
+        }
+
         int c = context.read();
         if (!isValidBareIdStart(c)) {
-            throw new KDLParseException("Illegal character at start of bare identifier");
+            throw context.error("Illegal character at start of bare identifier");
         } else if (c == EOF) {
             throw new KDLInternalException("EOF when a bare identifier expected");
         }
 
-        final StringBuilder stringBuilder = new StringBuilder();
+        if (symbols != null) {
+            c = context.peek();
+            while (isValidBareIdChar(c) && c != EOF) {
+                context.read();
+                checkStringLength(context, start);
+                c = context.peek();
+            }
+
+            return context.internMarked(symbols, 0);
+        }
+
+        final StringBuilder stringBuilder = context.scratch();
         stringBuilder.appendCodePoint(c);
 
         c = context.peek();
         while (isValidBareIdChar(c) && c != EOF) {
             stringBuilder.appendCodePoint(context.read());
+            checkStringLength(context, start);
             c = context.peek();
         }
 
         return stringBuilder.toString();
     }
 
+    /**
+     * Read past a bare identifier as parseBareIdentifier() would, without building a String. The identifier is left
+     * marked in the context, and must be taken or released.
+     *
+     * @return the index in LITERALS of the keyword the identifier matches, or -1 if it isn't one
+     */
+    int skipBareIdentifier(KDLParseContext context) throws IOException {
+        final long start = context.getOffset();
+        context.mark();
+
+        int c = context.read();
+        if (!isValidBareIdStart(c)) {
+            throw context.error("Illegal character at start of bare identifier");
+        } else if (c == EOF) {
+            throw new KDLInternalException("EOF when a bare identifier expected");
+        }
+
+        c = context.peek();
+        while (isValidBareIdChar(c) && c != EOF) {
+            context.read();
+            checkStringLength(context, start);
+            c = context.peek();
+        }
+
+        return context.matchMarked(LITERALS);
+    }
+
+    private void checkDigits(KDLParseContext context, int digits) {
+        if (digits > limits.getMaxNumberDigits()) {
+            throw context.error("Number exceeds the maximum of %d digits", limits.getMaxNumberDigits());
+        }
+    }
+
+    /**
+     * @return the offset just past the longest string allowed starting at start, where scanning it may stop since
+     *         reaching it fails checkStringLength()
+     */
+    private long stringEnd(long start) {
+        return start + limits.getMaxStringLength() + 1L;
+    }
+
+    private void checkStringLength(KDLParseContext context, long start) {
+        if (context.getOffset() - start > limits.getMaxStringLength()) {
+            throw context.error("String exceeds the maximum length of %d characters", limits.getMaxStringLength());
+        }
+    }
+
+    /**
+     * @return true if values should be kept as ranges of the source rather than decoded, which requires the whole
+     *         source to be in memory
+     */
+    private boolean shouldSlice(KDLParseContext context) {
+        return config.shouldParseValuesLazily() && context.getSource() != null;
+    }
+
+    KDLString parseEscapedStringValue(KDLParseContext context, Optional<String> type) throws IOException {
+        if (!shouldSlice(context)) {
+            return new KDLString(parseEscapedString(context), type);
+        }
+
+        final int start = context.getPosition() + 1;
+        final boolean escaped = skipEscapedString(context);
+        final int length = context.getPosition() - 1 - start;
+        return KDLString.fromChars(new StringSlice(context.getSource(), start, length, escaped), type);
+    }
+
+    /**
+     * Read past an escaped string, checking its escapes without decoding them.
+     *
+     * @return true if the string contains any escapes
+     */
+    boolean skipEscapedString(KDLParseContext context) throws IOException {
+        int c = context.read();
+        if (c != '"') {
+            throw new KDLInternalException("No quote at the beginning of escaped string");
+        }
+
+        final long start = context.getOffset();
+        final long until = stringEnd(start);
+        boolean escaped = false;
+        boolean inEscape = false;
+        while (true) {
+            if (!inEscape) {
+                context.takeStringRun(null, true, until);
+            }
+            checkStringLength(context, start);
+
+            c = context.read();
+            if (!inEscape && c == '\\') {
+                inEscape = true;
+                escaped = true;
+            } else if (c == '"' && !inEscape) {
+                return escaped;
+            } else if (inEscape) {
+                getEscaped(c, context);
+                inEscape = false;
+            } else if (c == EOF) {
+                throw context.error("EOF while reading an escaped string");
+            }
+        }
+    }
+
     String parseEscapedString(KDLParseContext context) throws IOException {
+        return parseEscapedString(context, null);
+    }
+
+    /**
+     * Parse an escaped string, interning it if a symbol table is provided. Strings without escapes are looked up
+     * directly from the context's buffer.
+     */
+    String parseEscapedString(KDLParseContext context, SymbolTable symbolTable) throws IOException {
         int c = context.read();
         if (c != '"') {
             throw new KDLInternalException("No quote at the beginning of escaped string");
         }
 
-        final StringBuilder stringBuilder = new StringBuilder();
+        StringBuilder stringBuilder = null;
+        if (symbolTable == null) {
+            stringBuilder = context.scratch();
+        } else {
+            context.mark();
+        }
+
+        final long start = context.getOffset();
+        final long until = stringEnd(start);
         boolean inEscape = false;
         while (true) {
+            if (!inEscape) {
+                context.takeStringRun(stringBuilder, true, until);
+            }
+            checkStringLength(context, start);
+
             c = context.read();
             if (!inEscape && c == '\\') {
                 inEscape = true;
+                if (stringBuilder == null) {
+                    stringBuilder = context.scratch();
+                    context.appendMarked(stringBuilder, 1);
+                }
             } else if (c == '"' && !inEscape) {
-                return stringBuilder.toString();
+                if (stringBuilder == null) {
+                    return context.internMarked(symbolTable, 1);
+                }
+                return symbolTable == null ? stringBuilder.toString() : symbolTable.intern(stringBuilder.toString());
             } else if (inEscape) {
                 stringBuilder.appendCodePoint(getEscaped(c, context));
                 inEscape = false;
             } else if (c == EOF) {
-                throw new KDLParseException("EOF while reading an escaped string");
-            } else {
+                throw context.error("EOF while reading an escaped string");
+            } else if (stringBuilder != null) {
                 stringBuilder.appendCodePoint(c);
             }
         }
@@ -614,48 +1711,66 @@ public class KDLParser {
             case 'f':
                 return '\f';
             case 'u': {
-                final StringBuilder stringBuilder = new StringBuilder(6);
                 c = context.read();
                 if (c != '{') {
-                    throw new KDLParseException("Unicode escape sequences must be surround by {} brackets");
+                    throw context.error("Unicode escape sequences must be surround by {} brackets");
                 }
 
+                int code = 0;
+                int length = 0;
                 c = context.read();
                 while (c != '}') {
                     if (c == EOF) {
-                        throw new KDLParseException("Reached EOF while reading unicode escape sequence");
+                        throw context.error("Reached EOF while reading unicode escape sequence");
                     } else if (!isValidHexChar(c)) {
-                        throw new KDLParseException(String.format("Unicode escape sequences must be valid hex chars, got: '%s'", (char) c));
+                        throw context.error("Unicode escape sequences must be valid hex chars, got: '%s'", (char) c);
                     }
 
-                    stringBuilder.appendCodePoint(c);
+                    if (++length <= 6) {
+                        code = code * 16 + Character.digit(c, 16);
+                    }
                     c = context.read();
                 }
 
-                final String strCode = stringBuilder.toString();
-                if (strCode.isEmpty() || strCode.length() > 6) {
-                    throw new KDLParseException(String.format("Unicode escape sequences must be between 1 and 6 characters in length. Got: '%s'", strCode));
+                if (length == 0 || length > 6) {
+                    throw context.error("Unicode escape sequences must be between 1 and 6 characters in length. Got: %d", length);
                 }
 
-                final int code;
-                try {
-                    code = Integer.parseInt(strCode, 16);
-                } catch (NumberFormatException e) {
-                    throw new KDLParseException(String.format("Couldn't parse '%s' as a hex integer", strCode));
-                }
-
-                if (code < 0 || MAX_UNICODE < code) {
-                    throw new KDLParseException(String.format("Unicode code point is outside allowed range [0, %x]: %x", MAX_UNICODE, code));
+                if (MAX_UNICODE < code) {
+                    throw context.error("Unicode code point is outside allowed range [0, %x]: %x", MAX_UNICODE, code);
                 } else {
                     return code;
                 }
             }
             default:
-                throw new KDLParseException(String.format("Illegal escape sequence: '\\%s'", (char) c));
+                throw context.error("Illegal escape sequence: '\\%s'", (char) c);
+        }
+    }
+
+    KDLString parseRawStringValue(KDLParseContext context, Optional<String> type) throws IOException {
+        if (!shouldSlice(context)) {
+            return new KDLString(parseRawString(context), type);
         }
+
+        final int start = context.getPosition();
+        final int hashDepth = readRawString(context, null);
+        final int contentStart = start + hashDepth + 2;
+        final int contentEnd = context.getPosition() - hashDepth - 1;
+        return KDLString.fromChars(new StringSlice(context.getSource(), contentStart, contentEnd - contentStart, false), type);
     }
 
     String parseRawString(KDLParseContext context) throws IOException {
+        final StringBuilder stringBuilder = context.scratch();
+        readRawString(context, stringBuilder);
+        return stringBuilder.toString();
+    }
+
+    /**
+     * Read a raw string, appending its contents to the provided builder if there is one.
+     *
+     * @return the number of '#' characters delimiting the string
+     */
+    private int readRawString(KDLParseContext context, StringBuilder stringBuilder) throws IOException {
         int c = context.read();
         if (c != 'r') {
             throw new KDLInternalException("Raw string should start with 'r'");
@@ -669,37 +1784,37 @@ public class KDLParser {
         }
 
         if (c != '"') {
-            throw new KDLParseException("Malformed raw string");
+            throw context.error("Malformed raw string");
         }
 
-        final StringBuilder stringBuilder = new StringBuilder();
+        final long start = context.getOffset();
+        final long until = stringEnd(start);
         while (true) {
+            context.takeStringRun(stringBuilder, false, until);
+            checkStringLength(context, start);
             c = context.read();
             if (c == '"') {
-                StringBuilder subStringBuilder = new StringBuilder();
-                subStringBuilder.append('"');
                 int hashDepthHere = 0;
-                while (true) {
-                    c = context.peek();
-                    if (c == '#') {
-                        context.read();
-                        hashDepthHere++;
-                        subStringBuilder.append('#');
-                    } else {
-                        break;
-                    }
+                while (context.peek() == '#') {
+                    context.read();
+                    hashDepthHere++;
                 }
 
                 if (hashDepthHere < hashDepth) {
-                    stringBuilder.append(subStringBuilder);
+                    if (stringBuilder != null) {
+                        stringBuilder.append('"');
+                        for (int i = 0; i < hashDepthHere; i++) {
+                            stringBuilder.append('#');
+                        }
+                    }
                 } else if (hashDepthHere == hashDepth) {
-                    return stringBuilder.toString();
+                    return hashDepth;
                 } else {
-                    throw new KDLParseException("Too many # characters when closing raw string");
+                    throw context.error("Too many # characters when closing raw string");
                 }
             } else if (c == EOF) {
-                throw new KDLParseException("EOF while reading raw string");
-            } else {
+                throw context.error("EOF while reading raw string");
+            } else if (stringBuilder != null) {
                 stringBuilder.appendCodePoint(c);
             }
         }
@@ -726,7 +1841,7 @@ public class KDLParser {
                     return SlashAction.END_NODE;
                 }
             default:
-                throw new KDLParseException(String.format("Unexpected character: '%s'", (char) c));
+                throw context.error("Unexpected character: '%s'", (char) c);
         }
     }
 
@@ -757,11 +1872,11 @@ public class KDLParser {
 
                     case SKIP_NEXT:
                         if (inLineEscape) {
-                            throw new KDLParseException("Found skip marker after line escape");
+                            throw context.error("Found skip marker after line escape");
                         }
 
                         if (skipping) {
-                            throw new KDLParseException("Node/Token skip may only be specified once per node/token");
+                            throw context.error("Node/Token skip may only be specified once per node/token");
                         } else {
                             skipping = true;
                         }
@@ -794,6 +1909,7 @@ public class KDLParser {
                 }
             } else {
                 context.read();
+                context.skipWhitespace();
                 foundWhitespace = true;
             }
 
@@ -812,6 +1928,7 @@ public class KDLParser {
     }
 
     void consumeLineComment(KDLParseContext context) throws IOException {
+        context.skipToLinespace();
         int c = context.peek();
         while (!isUnicodeLinespace(c) && c != EOF) {
             context.read();
@@ -822,32 +1939,36 @@ public class KDLParser {
                 }
                 return;
             }
+            context.skipToLinespace();
             c = context.peek();
         }
     }
 
     void consumeBlockComment(KDLParseContext context) throws IOException {
-        while (true) {
+        // Nested comments are counted rather than recursed into, so that they may be nested to any depth
+        int depth = 1;
+        while (depth > 0) {
             int c = context.read();
             while (c != '/' && c != '*' && c != EOF) {
+                context.poll();
                 c = context.read();
             }
 
             if (c == EOF) {
-                throw new KDLParseException("Got EOF while reading block comment");
+                throw context.error("Got EOF while reading block comment");
             }
 
             if (c == '/') {
                 c = context.peek();
                 if (c == '*') {
                     context.read();
-                    consumeBlockComment(context);
+                    depth++;
                 }
             } else { // c == '*'
                 c = context.peek();
                 if (c == '/') {
                     context.read();
-                    return;
+                    depth--;
                 }
             }
         }
@@ -863,7 +1984,7 @@ public class KDLParser {
             while (isUnicodeWhitespace(c) || isLinespace || c == '\uFEFF') {
                 foundWhitespace = true;
                 if (isLinespace && skipNext && !inEscape) {
-                    throw new KDLParseException("Unexpected newline after skip marker");
+                    throw context.error("Unexpected newline after skip marker");
                 }
 
                 if (isLinespace && inEscape) {
@@ -871,6 +1992,7 @@ public class KDLParser {
                 }
 
                 context.read();
+                context.skipWhitespace();
                 c = context.peek();
                 isLinespace = isUnicodeLinespace(c);
             }
@@ -891,15 +2013,15 @@ public class KDLParser {
                 inEscape = true;
             } else if (c == EOF) {
                 if (skipNext) {
-                    throw new KDLParseException("Unexpected EOF after skip marker");
+                    throw context.error("Unexpected EOF after skip marker");
                 } else if (inEscape) {
-                    throw new KDLParseException("Unexpected EOF after line escape");
+                    throw context.error("Unexpected EOF after line escape");
                 } else {
                     return WhitespaceResult.END_NODE;
                 }
             } else {
                 if (inEscape) {
-                    throw new KDLParseException("Expected newline or line comment following escape");
+                    throw context.error("Expected newline or line comment following escape");
                 }
 
                 if (skipNext) {
@@ -912,4 +2034,109 @@ public class KDLParser {
             }
         }
     }
+
+    /**
+     * A parser which keeps its scan buffer, scratch builder and document handler from one parse to the next, for
+     * parsing many small documents without allocating them each time. Since the buffer is reused, values and child
+     * blocks are always copied out of it even if configured to be parsed lazily. Sessions aren't thread-safe, and keep
+     * buffers as large as the largest document they've parsed.
+     */
+    public class Session {
+        private final StringBuilder scratch = new StringBuilder();
+        private final KDLDocumentHandler handler = new KDLDocumentHandler();
+        private char[] buffer = new char[KDLParseContext.DEFAULT_BUFFER_SIZE];
+
+        private Session() {
+        }
+
+        /**
+         * Parse the provided characters into a KDLDocument model object.
+         *
+         * @param chars the document to parse
+         * @return the parsed document
+         * @throws KDLParseException if the document is invalid for any reason
+         */
+        public KDLDocument parse(CharSequence chars) {
+            buffer = KDLParseContext.toCharArray(chars, buffer);
+            try {
+                return parse(new KDLParseContext(buffer, 0, chars.length(), 1, false));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Parse the provided UTF-8 encoded bytes into a KDLDocument model object.
+         *
+         * @param bytes the array holding the document
+         * @param offset the index of the document's first byte
+         * @param length the number of bytes in the document
+         * @return the parsed document
+         * @throws KDLParseException if the document is invalid for any reason
+         */
+        public KDLDocument parse(byte[] bytes, int offset, int length) {
+            try {
+                return parse(new Utf8Reader(bytes, offset, length));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /**
+         * Parse the given stream into a KDLDocument model object.
+         *
+         * @param reader the stream reader to parse from
+         * @return the parsed document
+         * @throws IOException if any error occurs while reading the stream
+         * @throws KDLParseException if the document is invalid for any reason
+         */
+        public KDLDocument parse(Reader reader) throws IOException {
+            return parse(new KDLParseContext(reader, buffer));
+        }
+
+        /**
+         * Parse the given stream of UTF-8 encoded bytes into a KDLDocument model object.
+         *
+         * @param stream the stream to parse from
+         * @return the parsed document
+         * @throws IOException if any error occurs while reading the stream
+         * @throws KDLParseException if the document is invalid for any reason
+         */
+        public KDLDocument parse(InputStream stream) throws IOException {
+            return parse(new Utf8Reader(stream));
+        }
+
+        /**
+         * Check that the provided characters are a valid KDL document without building any part of it.
+         *
+         * @param chars the document to check
+         * @return the result of the check
+         */
+        public ValidationResult validate(CharSequence chars) {
+            buffer = KDLParseContext.toCharArray(chars, buffer);
+            return validateInMemory(new KDLParseContext(buffer, 0, chars.length(), 1, false));
+        }
+
+        /**
+         * Check that the provided UTF-8 encoded bytes are a valid KDL document without building any part of it.
+         *
+         * @param bytes the array holding the document
+         * @param offset the index of the document's first byte
+         * @param length the number of bytes in the document
+         * @return the result of the check
+         */
+        public ValidationResult validate(byte[] bytes, int offset, int length) {
+            return validateInMemory(new KDLParseContext(new Utf8Reader(bytes, offset, length), buffer));
+        }
+
+        private KDLDocument parse(KDLParseContext context) throws IOException {
+            context.setScratch(scratch);
+            handler.reset();
+            try {
+                return buildDocument(new KDLStreamReader(KDLParser.this, context), handler);
+            } finally {
+                handler.reset();
+            }
+        }
+    }
 }
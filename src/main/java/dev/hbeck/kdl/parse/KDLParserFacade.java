@@ -14,8 +14,9 @@ import java.util.function.Predicate;
  * Internal class allowing access to the internal methods of KDLParser without confusing KDLParser's interface
  */
 public class KDLParserFacade extends KDLParser {
-    public KDLDocument parseDocument(KDLParseContext context, boolean root) throws IOException {
-        return super.parseDocument(context, root);
+    @Override
+    public KDLDocument parseDocument(KDLParseContext context) throws IOException {
+        return super.parseDocument(context);
     }
 
     @Override
@@ -0,0 +1,621 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLValue;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.hbeck.kdl.parse.CharClasses.isUnicodeLinespace;
+import static dev.hbeck.kdl.parse.KDLParser.EOF;
+
+/**
+ * A cursor over the contents of a KDL document, yielding one event at a time rather than building the full
+ * {@link dev.hbeck.kdl.objects.KDLDocument}. Only the current node's identifier and type, and the current argument or
+ * property, are held at any time, so documents of any size may be read in constant memory.
+ * <p>
+ * Every node produces a START_NODE event, followed by an ARG or PROP event for each of its arguments and properties in
+ * document order. If the node has a child block, START_CHILDREN follows, then the events for each child node, then
+ * END_CHILDREN. Finally END_NODE is produced. Once the document is exhausted END_DOCUMENT is returned. Anything
+ * commented out with a slashdash produces no events.
+ * <p>
+ * Instances are not safe to share between threads. Obtain one from {@link KDLParser#streamReader(java.io.Reader)}.
+ */
+public class KDLStreamReader {
+    public enum Event {
+        START_NODE,
+        ARG,
+        PROP,
+        START_CHILDREN,
+        END_CHILDREN,
+        END_NODE,
+        END_DOCUMENT
+    }
+
+    private enum State {
+        CHILD_START,
+        NODE_START,
+        DOCUMENT,
+        NODE,
+        NODE_END,
+        DONE
+    }
+
+    /**
+     * The construct a reader covers. Readers over a single node or child block are used internally to parse fragments
+     * of a document.
+     */
+    enum Scope {
+        DOCUMENT,
+        NODE,
+        CHILD
+    }
+
+    private final KDLParser parser;
+    private final KDLParseContext context;
+    private final ParseLimits limits;
+    // Null if the parse can't be cancelled
+    private final Cancellation cancellation;
+
+    private final Scope scope;
+    // The depth in the whole document of the nodes at this reader's depth 0
+    private final int baseDepth;
+
+    private State state;
+    private Event event = null;
+    private int depth = 0;
+
+    // Counted towards the parser's limits. Nodes are also counted in documentNodes, if set, which is shared with the
+    // readers over any child blocks parsed lazily
+    private int nodes;
+    private final AtomicInteger documentNodes;
+    private int args = 0;
+    private int props = 0;
+
+    // When set, everything up to and including this event at skipDepth was commented out with a slashdash or is being
+    // skipped with skipNode(), and is checked without building anything
+    private Event skipEnd = null;
+    private int skipDepth = 0;
+
+    private String identifier = null;
+    private Optional<String> type = Optional.empty();
+    private String key = null;
+    private KDLValue<?> value = null;
+    private final KDLParser.Entry entry = new KDLParser.Entry();
+
+    // Set if the reader is recording where each node starts, in UTF-8 bytes from the start of the document
+    private boolean trackingOffsets = false;
+    private long nodeOffset = -1;
+
+    KDLStreamReader(KDLParser parser, KDLParseContext context) {
+        this(parser, context, Scope.DOCUMENT);
+    }
+
+    KDLStreamReader(KDLParser parser, KDLParseContext context, Scope scope) {
+        this(parser, context, scope, 0, 0, parser.newDocumentNodeCount(), Cancellation.start(parser.getConfig()));
+    }
+
+    /**
+     * Creates a reader over a fragment of a larger document, counting towards the parser's limits as if it were read
+     * with the rest of the document.
+     *
+     * @param baseDepth the depth of the fragment's outermost nodes in the document
+     * @param nodes the number of nodes already read from the document
+     * @param documentNodes the count of nodes read from the whole document by every reader over it, or null if the
+     *                      fragment's own count is enough
+     * @param cancellation the check polled for the whole document, or null if it can't be cancelled
+     */
+    KDLStreamReader(KDLParser parser, KDLParseContext context, Scope scope, int baseDepth, int nodes,
+                    AtomicInteger documentNodes, Cancellation cancellation) {
+        this.parser = parser;
+        this.context = context;
+        this.limits = parser.getLimits();
+        this.cancellation = cancellation;
+        this.scope = scope;
+        this.baseDepth = baseDepth;
+        this.nodes = nodes;
+        this.documentNodes = documentNodes;
+        context.limitLength(limits.getMaxInputSize());
+        context.setCancellation(cancellation);
+        switch (scope) {
+            case NODE:
+                this.state = State.NODE_START;
+                break;
+            case CHILD:
+                this.state = State.CHILD_START;
+                break;
+            default:
+                this.state = State.DOCUMENT;
+        }
+    }
+
+    /**
+     * @return true if there are more events in the document, false if END_DOCUMENT has been reached
+     */
+    public boolean hasNext() {
+        return state != State.DONE;
+    }
+
+    /**
+     * Advance to the next event in the document.
+     *
+     * @return the new current event
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason. The reader may not be used afterwards.
+     */
+    public Event next() throws IOException {
+        if (state == State.DONE) {
+            throw new IllegalStateException("No events remain, END_DOCUMENT has already been returned");
+        }
+
+        return withErrorLocation(this::advance);
+    }
+
+    /**
+     * Consume the remainder of the child block just started without parsing it, so that it may be parsed later. Only
+     * valid on START_CHILDREN events, following the call the next event will be the node's END_NODE.
+     *
+     * @return the unparsed child block
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the block isn't closed
+     */
+    LazyChild captureChildren() throws IOException {
+        if (event != Event.START_CHILDREN || skipEnd != null) {
+            throw new KDLInternalException(String.format("Can't capture a child block from event %s", event));
+        }
+
+        return withErrorLocation(() -> {
+            final LazyChild child = LazyChild.capture(parser, context, baseDepth + depth, documentNodes, cancellation);
+            depth--;
+            state = State.NODE_END;
+            return child;
+        });
+    }
+
+    /**
+     * Skip the remainder of the current node, including all of its arguments, properties, and children. Only valid
+     * when positioned on an event belonging to a node, following the call the current event will be that node's
+     * END_NODE. The skipped content is still checked for errors, but none of its values are built.
+     *
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    public void skipNode() throws IOException {
+        if (event == null || event == Event.END_NODE || event == Event.END_DOCUMENT) {
+            throw new IllegalStateException(String.format("Can't skip a node from event %s", event));
+        }
+
+        final int nodeDepth = getDepth();
+        withErrorLocation(() -> {
+            skipUntil(Event.END_NODE, nodeDepth);
+            while (skipEnd != null) {
+                if (step() == skipEnd && depth == skipDepth) {
+                    skipEnd = null;
+                }
+            }
+
+            event = Event.END_NODE;
+            key = null;
+            value = null;
+            return event;
+        });
+    }
+
+    /**
+     * Check the remainder of the document without building anything or producing any events, as if all of it were
+     * commented out. Errors aren't decorated with their location, the context is left positioned where they occurred.
+     *
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the document is invalid for any reason
+     */
+    void skipDocument() throws IOException {
+        skipUntil(Event.END_DOCUMENT, 0);
+        while (state != State.DONE) {
+            step();
+        }
+
+        skipEnd = null;
+        event = Event.END_DOCUMENT;
+    }
+
+    /**
+     * @return the current event, or null if next() has not yet been called
+     */
+    public Event getEvent() {
+        return event;
+    }
+
+    /**
+     * @return the depth of the current node, 0 for nodes at the root of the document
+     */
+    public int getDepth() {
+        return event == Event.START_CHILDREN ? depth - 1 : depth;
+    }
+
+    /**
+     * @return the depth of the current node in the whole document, for readers over a fragment of one
+     */
+    int getDocumentDepth() {
+        return baseDepth + getDepth();
+    }
+
+    /**
+     * @return the identifier of the current node. Valid until the next START_NODE event.
+     */
+    public String getIdentifier() {
+        return identifier;
+    }
+
+    /**
+     * @return the type annotation of the current node, if any. Valid until the next START_NODE event.
+     */
+    public Optional<String> getType() {
+        return type;
+    }
+
+    /**
+     * @return the key of the current property. Only valid on PROP events.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return the value of the current argument or property. Only valid on ARG and PROP events.
+     */
+    public KDLValue<?> getValue() {
+        return value;
+    }
+
+    /**
+     * Start recording the offset of each node for getNodeOffset(). Must be called before the first event.
+     */
+    void trackNodeOffsets() {
+        trackingOffsets = true;
+        context.countUtf8();
+    }
+
+    /**
+     * @return the number of bytes from the start of the document to the current node when encoded as UTF-8, or -1 if
+     *         offsets aren't being tracked. Valid until the next START_NODE event.
+     */
+    long getNodeOffset() {
+        return nodeOffset;
+    }
+
+    /**
+     * @return the number of nodes read so far, including any counted before the reader was created
+     */
+    int getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Advance to the next event without decorating errors with their location, for use when the reader is part of a
+     * larger parse.
+     */
+    Event advance() throws IOException {
+        if (state == State.DONE) {
+            throw new KDLInternalException("Attempt to advance a finished reader");
+        }
+
+        while (true) {
+            key = null;
+            value = null;
+
+            final Event next = step();
+            if (skipEnd == null) {
+                event = next;
+                return next;
+            } else if (next == skipEnd && depth == skipDepth) {
+                skipEnd = null;
+            }
+        }
+    }
+
+    /**
+     * Resume reading after advance() has failed with a parse error, skipping ahead to the next newline, ';' or '}'.
+     * The node the error was found in ends there, keeping whatever was read of it, and a '}' also closes the child
+     * block around it. The handler receives the events closing anything abandoned that wasn't being skipped. At the
+     * end of the document every open node and child block is closed.
+     *
+     * @param handler the handler the reader's events are being sent to
+     * @throws IOException if any error occurs while reading the stream
+     * @throws KDLParseException if the stream can't be decoded, in which case abandon() should be called
+     */
+    void recover(KDLHandler handler) throws IOException {
+        resume(handler, context.skipToSync());
+    }
+
+    /**
+     * Close everything open as if the document ended at the point of an error which can't be recovered from.
+     *
+     * @param handler the handler the reader's events are being sent to
+     */
+    void abandon(KDLHandler handler) {
+        resume(handler, EOF);
+    }
+
+    private void resume(KDLHandler handler, int syncedTo) {
+        key = null;
+        value = null;
+        if (state == State.NODE || state == State.NODE_END) {
+            closeNode(handler);
+        }
+
+        if (syncedTo == EOF) {
+            while (depth > 0) {
+                closeChildren(handler);
+                closeNode(handler);
+            }
+
+            skipEnd = null;
+            state = State.DONE;
+            event = Event.END_DOCUMENT;
+            handler.endDocument();
+            return;
+        }
+
+        if (syncedTo == '}' && depth > 0) {
+            closeChildren(handler);
+            state = State.NODE_END;
+        } else {
+            state = State.DOCUMENT;
+        }
+        event = Event.END_NODE;
+
+        // Stop skipping if whatever was being skipped has now been closed
+        if (skipEnd != null && (depth < skipDepth
+                || depth == skipDepth && (state != State.NODE_END || skipEnd != Event.END_NODE))) {
+            skipEnd = null;
+        }
+    }
+
+    private void closeNode(KDLHandler handler) {
+        if (skipEnd == null || depth < skipDepth || depth == skipDepth && skipEnd == Event.END_CHILDREN) {
+            handler.endNode();
+        }
+    }
+
+    private void closeChildren(KDLHandler handler) {
+        depth--;
+        if (skipEnd == null || depth < skipDepth) {
+            handler.endChildren();
+        }
+    }
+
+    /**
+     * Pass the current event on to a handler
+     *
+     * @param handler the handler to invoke
+     */
+    void sendTo(KDLHandler handler) {
+        switch (event) {
+            case START_NODE:
+                handler.startNode(identifier, type);
+                break;
+            case ARG:
+                handler.arg(value);
+                break;
+            case PROP:
+                handler.prop(key, value);
+                break;
+            case START_CHILDREN:
+                handler.startChildren();
+                break;
+            case END_CHILDREN:
+                handler.endChildren();
+                break;
+            case END_NODE:
+                handler.endNode();
+                break;
+            case END_DOCUMENT:
+                handler.endDocument();
+                break;
+        }
+    }
+
+    private Event step() throws IOException {
+        switch (state) {
+            case CHILD_START:
+                if (context.read() != '{') {
+                    throw new KDLInternalException("Expected '{' at the start of a child block");
+                }
+                state = State.DOCUMENT;
+                return step();
+            case NODE_START:
+                return startNode();
+            case DOCUMENT:
+                return advanceInDocument();
+            case NODE:
+                return advanceInNode();
+            case NODE_END:
+                return endNode();
+            default:
+                throw new KDLInternalException(String.format("Unexpected reader state: %s", state));
+        }
+    }
+
+    private void skipUntil(Event end, int endDepth) {
+        if (skipEnd == null) {
+            skipEnd = end;
+            skipDepth = endDepth;
+        }
+    }
+
+    private Event advanceInDocument() throws IOException {
+        while (true) {
+            boolean skippingNode = false;
+            switch (parser.consumeWhitespaceAndLinespace(context)) {
+                case NODE_SPACE:
+                case NO_WHITESPACE:
+                    break;
+                case END_NODE:
+                    if (context.peek() == EOF) {
+                        break;
+                    } else {
+                        continue;
+                    }
+                case SKIP_NEXT:
+                    skippingNode = true;
+                    break;
+            }
+
+            final int c = context.peek();
+            if (c == EOF) {
+                if (depth == 0 && scope != Scope.CHILD) {
+                    state = State.DONE;
+                    return Event.END_DOCUMENT;
+                } else {
+                    throw context.error("Got EOF, expected a node or '}'");
+                }
+            } else if (c == '}') {
+                if (depth == 0 && scope != Scope.CHILD) {
+                    throw context.error("Unexpected '}' in root document");
+                }
+
+                context.read();
+                if (depth == 0) {
+                    state = State.DONE;
+                    return Event.END_DOCUMENT;
+                }
+
+                depth--;
+                state = State.NODE_END;
+                return Event.END_CHILDREN;
+            }
+
+            if (skippingNode) {
+                skipUntil(Event.END_NODE, depth);
+            }
+
+            return startNode();
+        }
+    }
+
+    private Event advanceInNode() throws IOException {
+        while (true) {
+            final KDLParser.WhitespaceResult whitespaceResult = parser.consumeWhitespaceAndBlockComments(context);
+            final int c = context.peek();
+            switch (whitespaceResult) {
+                case NODE_SPACE:
+                    if (c == '{') {
+                        return startChildren();
+                    } else if (isUnicodeLinespace(c) || c == EOF) {
+                        return endNode();
+                    } else if (skipEnd != null) {
+                        countEntry(parser.skipArgOrProp(context));
+                        break;
+                    } else {
+                        parser.parseArgOrProp(context, entry);
+                        countEntry(entry.key != null);
+                        key = entry.key;
+                        value = entry.value;
+                        return key == null ? Event.ARG : Event.PROP;
+                    }
+
+                case NO_WHITESPACE:
+                    if (c == '{') {
+                        return startChildren();
+                    } else if (isUnicodeLinespace(c) || c == EOF) {
+                        return endNode();
+                    } else if (c == ';') {
+                        context.read();
+                        return endNode();
+                    } else {
+                        throw context.error("Unexpected character: '%s' (\\u%06X)", (char) c, c);
+                    }
+                case END_NODE:
+                    return endNode();
+                case SKIP_NEXT:
+                    if (c == '{') {
+                        skipUntil(Event.END_CHILDREN, depth);
+                        return startChildren();
+                    } else if (isUnicodeLinespace(c)) {
+                        throw context.error("Unexpected skip marker before newline");
+                    } else if (c == EOF) {
+                        throw context.error("Unexpected EOF following skip marker");
+                    } else {
+                        countEntry(parser.skipArgOrProp(context));
+                    }
+                    break;
+            }
+        }
+    }
+
+    private void countEntry(boolean property) {
+        if (property) {
+            if (++props > limits.getMaxProperties()) {
+                throw context.error("Node exceeds the maximum of %d properties", limits.getMaxProperties());
+            }
+        } else if (++args > limits.getMaxArguments()) {
+            throw context.error("Node exceeds the maximum of %d arguments", limits.getMaxArguments());
+        }
+
+        if (cancellation != null && (args + props) % Cancellation.POLL_ENTRIES == 0) {
+            cancellation.check();
+        }
+    }
+
+    private Event startNode() throws IOException {
+        if (++nodes > limits.getMaxNodes() || documentNodes != null && documentNodes.incrementAndGet() > limits.getMaxNodes()) {
+            throw context.error("Document exceeds the maximum of %d nodes", limits.getMaxNodes());
+        } else if (cancellation != null && nodes % Cancellation.POLL_NODES == 0) {
+            cancellation.check();
+        }
+
+        args = 0;
+        props = 0;
+        if (trackingOffsets) {
+            nodeOffset = context.getUtf8Offset();
+        }
+
+        if (skipEnd != null) {
+            parser.skipTypeIfPresent(context);
+            parser.skipIdentifier(context);
+        } else {
+            type = parser.parseTypeIfPresent(context);
+            identifier = parser.parseIdentifier(context);
+        }
+        state = State.NODE;
+        return Event.START_NODE;
+    }
+
+    private Event startChildren() throws IOException {
+        if (baseDepth + depth >= limits.getMaxDepth()) {
+            throw context.error("Document exceeds the maximum depth of %d", limits.getMaxDepth());
+        }
+
+        context.read();
+        depth++;
+        state = State.DOCUMENT;
+        return Event.START_CHILDREN;
+    }
+
+    private Event endNode() throws IOException {
+        parser.consumeAfterNode(context);
+        state = scope == Scope.NODE && depth == 0 ? State.DONE : State.DOCUMENT;
+        return Event.END_NODE;
+    }
+
+    private interface ReadOperation<T> {
+        T run() throws IOException;
+    }
+
+    private <T> T withErrorLocation(ReadOperation<T> operation) throws IOException {
+        try {
+            return operation.run();
+        } catch (KDLCancelledException e) {
+            throw e;
+        } catch (KDLParseException e) {
+            final String message = String.format("%s\n%s", e.getMessage(), context.getErrorLocationAndInvalidateContext());
+            throw new KDLParseException(message, e);
+        } catch (IOException e) {
+            throw new IOException(context.getErrorLocationAndInvalidateContext(), e);
+        } catch (KDLInternalException e) {
+            throw new KDLInternalException(context.getErrorLocationAndInvalidateContext(), e);
+        } catch (Throwable t) {
+            throw new KDLInternalException(String.format("Unexpected exception:\n%s", context.getErrorLocationAndInvalidateContext()), t);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Internal class holding the unparsed text of a child block, from its opening brace to its closing brace, and parsing
+ * it when the child is requested. For documents scanned in place the text is a range of the source array, otherwise
+ * it's copied out as the block is read.
+ */
+class LazyChild implements Supplier<Optional<KDLDocument>> {
+    private final KDLParser parser;
+    private final char[] source;
+    private final int offset;
+    private final int length;
+    private final int firstLine;
+    private final int depth;
+    // Shared with the rest of the document, null if it's not limited
+    private final AtomicInteger documentNodes;
+    // The document's check, so the block is still held to the deadline of the parse that found it
+    private final Cancellation cancellation;
+
+    private LazyChild(KDLParser parser, char[] source, int offset, int length, int firstLine, int depth,
+                      AtomicInteger documentNodes, Cancellation cancellation) {
+        this.parser = parser;
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.firstLine = firstLine;
+        this.depth = depth;
+        this.documentNodes = documentNodes;
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * Read the remainder of a child block whose opening brace has just been read, up to and including its closing
+     * brace.
+     *
+     * @param parser the parser to parse the block with once it's requested
+     * @param context the context positioned just after the opening brace
+     * @param depth the depth in the document of the block's nodes
+     * @param documentNodes the count of nodes read from the whole document, which the block's nodes are added to once
+     *                      it's parsed, or null if the document's nodes aren't limited
+     * @param cancellation the check polled while parsing the document, or null if it can't be cancelled
+     * @return the unparsed block
+     */
+    static LazyChild capture(KDLParser parser, KDLParseContext context, int depth, AtomicInteger documentNodes,
+                             Cancellation cancellation) throws IOException {
+        final int firstLine = context.getLine();
+        final char[] source = context.getSource();
+        final StructureScanner scanner = new StructureScanner();
+
+        if (source != null) {
+            final int start = context.getPosition() - 1;
+            while (!scanner.closesBlock(readInBlock(context))) ;
+            return new LazyChild(parser, source, start, context.getPosition() - start, firstLine, depth, documentNodes, cancellation);
+        }
+
+        final StringBuilder block = new StringBuilder().append('{');
+        char c;
+        do {
+            c = readInBlock(context);
+            block.append(c);
+        } while (!scanner.closesBlock(c));
+
+        final char[] copy = new char[block.length()];
+        block.getChars(0, copy.length, copy, 0);
+        return new LazyChild(parser, copy, 0, copy.length, firstLine, depth, documentNodes, cancellation);
+    }
+
+    private static char readInBlock(KDLParseContext context) throws IOException {
+        context.poll();
+        final int c = context.read();
+        if (c == KDLParser.EOF) {
+            throw new KDLParseException("Got EOF, expected a node or '}'");
+        }
+
+        return (char) c;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws KDLParseException if the block is invalid for any reason
+     */
+    @Override
+    public Optional<KDLDocument> get() {
+        final KDLParseContext context = new KDLParseContext(source, offset, length, firstLine);
+        try {
+            return Optional.of(parser.buildDocument(new KDLStreamReader(parser, context, KDLStreamReader.Scope.CHILD, depth, 0,
+                    documentNodes, cancellation)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
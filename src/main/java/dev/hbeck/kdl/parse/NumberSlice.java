@@ -0,0 +1,33 @@
+package dev.hbeck.kdl.parse;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Internal class holding the text of a number in the source document, and converting it when the number's value is
+ * requested.
+ */
+class NumberSlice implements Supplier<Number> {
+    private static final KDLParser PARSER = new KDLParser();
+
+    private final char[] source;
+    private final int offset;
+    private final int length;
+
+    NumberSlice(char[] source, int offset, int length) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public Number get() {
+        // The number was checked when the document was parsed, so this can't fail
+        try {
+            return PARSER.parseNumber(new KDLParseContext(source, offset, length), Optional.empty()).getValue();
+        } catch (IOException e) {
+            throw new KDLInternalException("Couldn't convert a pre-vetted number", e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package dev.hbeck.kdl.parse;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A config object controlling various aspects of how KDL documents are parsed.
+ */
+public class ParseConfig {
+    public static final ParseConfig DEFAULT = ParseConfig.builder().build();
+
+    private final boolean lazyChildren;
+    private final boolean lazyValues;
+    private final Optional<SymbolTable> symbolTable;
+    private final ParseLimits limits;
+    private final Optional<Projection> projection;
+    private final Optional<Duration> timeout;
+    private final Optional<BooleanSupplier> cancellation;
+    private final boolean interruptible;
+
+    private ParseConfig(boolean lazyChildren, boolean lazyValues, Optional<SymbolTable> symbolTable, ParseLimits limits,
+                        Optional<Projection> projection, Optional<Duration> timeout,
+                        Optional<BooleanSupplier> cancellation, boolean interruptible) {
+        this.lazyChildren = lazyChildren;
+        this.lazyValues = lazyValues;
+        this.symbolTable = symbolTable;
+        this.limits = limits;
+        this.projection = projection;
+        this.timeout = timeout;
+        this.cancellation = cancellation;
+        this.interruptible = interruptible;
+    }
+
+    /**
+     * @return true if child blocks are only scanned for their closing brace when a document is built, and parsed on the
+     *         first call to their node's getChild(). The text of unparsed children is retained in the meantime, and
+     *         errors within them aren't reported until they're parsed.
+     */
+    public boolean shouldParseChildrenLazily() {
+        return lazyChildren;
+    }
+
+    /**
+     * @return true if quoted and raw string values, and numbers which don't fit in a long, keep a reference to their
+     *         text in the source rather than being decoded as they're parsed. Their Strings and Numbers are built on
+     *         the first call to getValue(), and strings without escapes may be read in place with
+     *         {@link dev.hbeck.kdl.objects.KDLString#getChars()}. Only applies to documents parsed from memory, and
+     *         keeps the whole source alive for as long as any value parsed from it.
+     */
+    public boolean shouldParseValuesLazily() {
+        return lazyValues;
+    }
+
+    /**
+     * @return the table used to share String instances between repeated identifiers, property keys, and type
+     *         annotations, if any
+     */
+    public Optional<SymbolTable> getSymbolTable() {
+        return symbolTable;
+    }
+
+    /**
+     * @return the bounds on the documents accepted, see {@link ParseLimits}
+     */
+    public ParseLimits getLimits() {
+        return limits;
+    }
+
+    /**
+     * @return the branches of the document kept when it's parsed into a KDLDocument or iterated node by node, if
+     *         restricted, see {@link Projection}. Handlers and stream readers still receive the whole document.
+     */
+    public Optional<Projection> getProjection() {
+        return projection;
+    }
+
+    /**
+     * @return how long a parse may run before it's abandoned with a {@link KDLCancelledException}, if limited. The
+     *         deadline is set once when the parse starts and shared by every piece of a parallel parse, by lazily
+     *         parsed children, which fail if loaded after it, and by every call to a feed parser, timed from its
+     *         creation.
+     */
+    public Optional<Duration> getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return a check polled while parsing, which abandons the parse with a {@link KDLCancelledException} once it
+     *         returns true, if any
+     */
+    public Optional<BooleanSupplier> getCancellation() {
+        return cancellation;
+    }
+
+    /**
+     * @return true if a parse is abandoned with a {@link KDLCancelledException} once its thread is interrupted. The
+     *         thread's interrupt status is left set.
+     */
+    public boolean isInterruptible() {
+        return interruptible;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * See get()/should() methods above for explanation of each variable's meaning
+     */
+    public static class Builder {
+        private boolean lazyChildren = false;
+        private boolean lazyValues = false;
+        private SymbolTable symbolTable = null;
+        private ParseLimits limits = ParseLimits.NONE;
+        private Projection projection = null;
+        private Duration timeout = null;
+        private BooleanSupplier cancellation = null;
+        private boolean interruptible = false;
+
+        public Builder setParseChildrenLazily(boolean lazyChildren) {
+            this.lazyChildren = lazyChildren;
+            return this;
+        }
+
+        public Builder setParseValuesLazily(boolean lazyValues) {
+            this.lazyValues = lazyValues;
+            return this;
+        }
+
+        public Builder setSymbolTable(SymbolTable symbolTable) {
+            this.symbolTable = symbolTable;
+            return this;
+        }
+
+        public Builder setLimits(ParseLimits limits) {
+            this.limits = Objects.requireNonNull(limits);
+            return this;
+        }
+
+        public Builder setProjection(Projection projection) {
+            this.projection = projection;
+            return this;
+        }
+
+        public Builder setTimeout(Duration timeout) {
+            if (timeout != null && timeout.isNegative()) {
+                throw new IllegalArgumentException("Timeout must not be negative");
+            }
+
+            this.timeout = timeout;
+            return this;
+        }
+
+        public Builder setCancellation(BooleanSupplier cancellation) {
+            this.cancellation = cancellation;
+            return this;
+        }
+
+        public Builder setInterruptible(boolean interruptible) {
+            this.interruptible = interruptible;
+            return this;
+        }
+
+        public ParseConfig build() {
+            return new ParseConfig(lazyChildren, lazyValues, Optional.ofNullable(symbolTable), limits,
+                    Optional.ofNullable(projection), Optional.ofNullable(timeout), Optional.ofNullable(cancellation),
+                    interruptible);
+        }
+    }
+}
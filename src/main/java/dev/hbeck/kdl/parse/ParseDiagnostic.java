@@ -0,0 +1,66 @@
+package dev.hbeck.kdl.parse;
+
+import java.util.Objects;
+
+/**
+ * An error found by {@link KDLParser#parseRecovering(CharSequence)}, and where it was found.
+ */
+public final class ParseDiagnostic {
+    private final long offset;
+    private final int line;
+    private final int column;
+    private final String message;
+
+    ParseDiagnostic(long offset, int line, int column, String message) {
+        this.offset = offset;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    /**
+     * @return the number of characters from the start of the document to the error
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the line of the error, counting from 1
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return the column of the error within its line, counting from 1
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return a description of the error
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ParseDiagnostic)) return false;
+        ParseDiagnostic that = (ParseDiagnostic) o;
+        return offset == that.offset && line == that.line && column == that.column && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, line, column, message);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Line %d, column %d: %s", line, column, message);
+    }
+}
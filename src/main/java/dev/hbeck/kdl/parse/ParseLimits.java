@@ -0,0 +1,144 @@
+package dev.hbeck.kdl.parse;
+
+/**
+ * Bounds on the size and shape of the documents a parser accepts, for parsing untrusted input without letting any one
+ * document take an unbounded amount of time or memory. Exceeding any of them fails the parse with a
+ * {@link KDLParseException}. Set them with {@link ParseConfig.Builder#setLimits(ParseLimits)}, by default nothing is
+ * limited.
+ */
+public class ParseLimits {
+    public static final ParseLimits NONE = ParseLimits.builder().build();
+
+    private final long maxInputSize;
+    private final int maxDepth;
+    private final int maxNodes;
+    private final int maxArguments;
+    private final int maxProperties;
+    private final int maxStringLength;
+    private final int maxNumberDigits;
+
+    private ParseLimits(long maxInputSize, int maxDepth, int maxNodes, int maxArguments, int maxProperties,
+                        int maxStringLength, int maxNumberDigits) {
+        this.maxInputSize = maxInputSize;
+        this.maxDepth = maxDepth;
+        this.maxNodes = maxNodes;
+        this.maxArguments = maxArguments;
+        this.maxProperties = maxProperties;
+        this.maxStringLength = maxStringLength;
+        this.maxNumberDigits = maxNumberDigits;
+    }
+
+    /**
+     * @return the maximum number of characters in a document
+     */
+    public long getMaxInputSize() {
+        return maxInputSize;
+    }
+
+    /**
+     * @return the maximum number of child blocks a node may be nested within
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the maximum number of nodes in a document, including those commented out with a slashdash. Nodes in
+     *         child blocks parsed lazily count towards the document they were read from, as do the nodes in every
+     *         piece of a parallel parse.
+     */
+    public int getMaxNodes() {
+        return maxNodes;
+    }
+
+    /**
+     * @return the maximum number of arguments a node may have
+     */
+    public int getMaxArguments() {
+        return maxArguments;
+    }
+
+    /**
+     * @return the maximum number of properties a node may have
+     */
+    public int getMaxProperties() {
+        return maxProperties;
+    }
+
+    /**
+     * @return the maximum number of characters in a string or identifier, as written in the document before any
+     *         escapes are decoded
+     */
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * @return the maximum number of digits in a number, including those of its fraction and exponent
+     */
+    public int getMaxNumberDigits() {
+        return maxNumberDigits;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * See get() methods above for explanation of each limit's meaning
+     */
+    public static class Builder {
+        private long maxInputSize = Long.MAX_VALUE;
+        private int maxDepth = Integer.MAX_VALUE;
+        private int maxNodes = Integer.MAX_VALUE;
+        private int maxArguments = Integer.MAX_VALUE;
+        private int maxProperties = Integer.MAX_VALUE;
+        private int maxStringLength = Integer.MAX_VALUE;
+        private int maxNumberDigits = Integer.MAX_VALUE;
+
+        public Builder setMaxInputSize(long maxInputSize) {
+            this.maxInputSize = maxInputSize;
+            return this;
+        }
+
+        public Builder setMaxDepth(int maxDepth) {
+            this.maxDepth = maxDepth;
+            return this;
+        }
+
+        public Builder setMaxNodes(int maxNodes) {
+            this.maxNodes = maxNodes;
+            return this;
+        }
+
+        public Builder setMaxArguments(int maxArguments) {
+            this.maxArguments = maxArguments;
+            return this;
+        }
+
+        public Builder setMaxProperties(int maxProperties) {
+            this.maxProperties = maxProperties;
+            return this;
+        }
+
+        public Builder setMaxStringLength(int maxStringLength) {
+            this.maxStringLength = maxStringLength;
+            return this;
+        }
+
+        public Builder setMaxNumberDigits(int maxNumberDigits) {
+            this.maxNumberDigits = maxNumberDigits;
+            return this;
+        }
+
+        public ParseLimits build() {
+            if (maxInputSize < 0 || maxDepth < 0 || maxNodes < 0 || maxArguments < 0 || maxProperties < 0
+                    || maxStringLength < 0 || maxNumberDigits < 0) {
+                throw new IllegalArgumentException("Limits must not be negative");
+            }
+
+            return new ParseLimits(maxInputSize, maxDepth, maxNodes, maxArguments, maxProperties, maxStringLength,
+                    maxNumberDigits);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package dev.hbeck.kdl.parse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A path of predicates on node names restricting a parse to the matching branches of a document. The first predicate
+ * selects nodes at the root, the second selects among the children of those nodes, and so on. Nodes matching the last
+ * predicate are kept along with everything beneath them, and the nodes above them are only kept if one of their
+ * children is. Everything else is skipped as it's read, without being built.
+ * <p>
+ * Parsing with a projection produces the same document as filtering the fully parsed document with a
+ * {@link dev.hbeck.kdl.search.PathedSearch} whose predicates test the same names. Set it with
+ * {@link ParseConfig.Builder#setProjection(Projection)}.
+ */
+public class Projection {
+    private final List<Predicate<String>> levels;
+
+    private Projection(List<Predicate<String>> levels) {
+        this.levels = levels;
+    }
+
+    /**
+     * @param depth the depth of a node, 0 for nodes at the root of the document
+     * @param identifier the node's identifier
+     * @return true if the node is on a matching branch, assuming its parent is
+     */
+    boolean matches(int depth, String identifier) {
+        return depth >= levels.size() || levels.get(depth).test(identifier);
+    }
+
+    /**
+     * @param depth the depth of a node, 0 for nodes at the root of the document
+     * @return true if everything beneath a matching node at this depth is kept
+     */
+    boolean keepsSubtree(int depth) {
+        return depth >= levels.size() - 1;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private final List<Predicate<String>> levels = new ArrayList<>();
+
+        public Builder addLevel(Predicate<String> namePredicate) {
+            levels.add(namePredicate);
+            return this;
+        }
+
+        public Projection build() {
+            if (levels.isEmpty()) {
+                throw new IllegalArgumentException("A projection must have at least one level");
+            }
+
+            return new Projection(new ArrayList<>(levels));
+        }
+    }
+}
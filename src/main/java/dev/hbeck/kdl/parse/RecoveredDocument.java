@@ -0,0 +1,50 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of {@link KDLParser#parseRecovering(CharSequence)}: as much of the document as could be parsed, and
+ * every error found along the way.
+ */
+public final class RecoveredDocument {
+    private final KDLDocument document;
+    private final List<ParseDiagnostic> diagnostics;
+
+    RecoveredDocument(KDLDocument document, List<ParseDiagnostic> diagnostics) {
+        this.document = document;
+        this.diagnostics = Collections.unmodifiableList(diagnostics);
+    }
+
+    /**
+     * @return the parsed document. If there were errors, each node they were found in holds only what was read of it
+     *         before the error, and nodes whose identifier couldn't be read are missing.
+     */
+    public KDLDocument getDocument() {
+        return document;
+    }
+
+    /**
+     * @return the errors found, in document order
+     */
+    public List<ParseDiagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+     * @return true if the document was parsed without errors
+     */
+    public boolean isValid() {
+        return diagnostics.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return "RecoveredDocument{" +
+                "document=" + document +
+                ", diagnostics=" + diagnostics +
+                '}';
+    }
+}
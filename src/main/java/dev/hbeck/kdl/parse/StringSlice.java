@@ -0,0 +1,74 @@
+package dev.hbeck.kdl.parse;
+
+import java.io.IOException;
+
+/**
+ * Internal class viewing the text of a string value in the source document, between its quotes. Strings without
+ * escapes are read in place, while those with escapes are decoded the first time their characters are needed.
+ */
+class StringSlice implements CharSequence {
+    private static final KDLParser PARSER = new KDLParser();
+
+    private final char[] source;
+    private final int offset;
+    private final int length;
+    private final boolean escaped;
+
+    // Null until an escaped string has been decoded. Written without synchronization, since Strings are immutable and
+    // at worst a thread decodes its own copy.
+    private String decoded;
+
+    StringSlice(char[] source, int offset, int length, boolean escaped) {
+        this.source = source;
+        this.offset = offset;
+        this.length = length;
+        this.escaped = escaped;
+    }
+
+    @Override
+    public int length() {
+        return escaped ? decode().length() : length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (escaped) {
+            return decode().charAt(index);
+        } else if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for length %d", index, length));
+        }
+
+        return source[offset + index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (escaped) {
+            return decode().subSequence(start, end);
+        } else if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException(String.format("Range [%d, %d) out of bounds for length %d", start, end, length));
+        }
+
+        return new StringSlice(source, offset + start, end - start, false);
+    }
+
+    @Override
+    public String toString() {
+        return escaped ? decode() : new String(source, offset, length);
+    }
+
+    private String decode() {
+        String string = decoded;
+        if (string == null) {
+            // The escapes were checked when the document was parsed, so this can't fail
+            try {
+                string = PARSER.parseEscapedString(new KDLParseContext(source, offset - 1, length + 2));
+            } catch (IOException e) {
+                throw new KDLInternalException("Couldn't decode a pre-vetted string", e);
+            }
+            decoded = string;
+        }
+
+        return string;
+    }
+}
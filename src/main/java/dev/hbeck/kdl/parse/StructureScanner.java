@@ -0,0 +1,249 @@
+package dev.hbeck.kdl.parse;
+
+import static dev.hbeck.kdl.parse.CharClasses.isUnicodeLinespace;
+import static dev.hbeck.kdl.parse.CharClasses.isValidBareIdChar;
+
+/**
+ * Internal class tracking just enough lexical state to find the structure of a document without parsing it: whether
+ * the current character is inside a string, raw string, or comment, and how deeply child blocks are nested. This is
+ * far cheaper than a full parse, and is used to find places where a document may safely be split between root nodes.
+ * <p>
+ * State is retained between calls, so input may be fed through in arbitrary pieces. The scanner doesn't validate
+ * anything, for invalid documents the boundaries found are unspecified but the pieces will still fail to parse.
+ */
+class StructureScanner {
+    private enum Mode {
+        NORMAL,
+        SLASH,
+        LINE_COMMENT,
+        BLOCK_COMMENT,
+        BLOCK_COMMENT_SLASH,
+        BLOCK_COMMENT_STAR,
+        STRING,
+        STRING_ESCAPE,
+        RAW_STRING_OPEN,
+        RAW_STRING,
+        RAW_STRING_CLOSE
+    }
+
+    private Mode mode = Mode.NORMAL;
+    private int braceDepth = 0;
+    private int commentDepth = 0;
+    private int hashDepth = 0;
+    private int hashCount = 0;
+    private boolean lineEscaped = false;
+    private boolean afterIdentifierChar = false;
+    private int lines = 0;
+
+    /**
+     * Scan forward to the next place where the document may be split, immediately following a newline at the root of
+     * the document that isn't escaped or inside a string or comment. Each piece of a document split at such points
+     * parses to the same nodes as the corresponding part of the whole document.
+     *
+     * @param chars the characters to scan
+     * @param from the index to begin scanning at
+     * @param to the index to stop scanning at, exclusive
+     * @return the index immediately following the newline, or -1 if the end of the range was reached first. A '}' at
+     *         the root with no block to close is also returned as a boundary, see isUnbalanced().
+     */
+    int nextRootBoundary(char[] chars, int from, int to) {
+        for (int i = from; i < to; i++) {
+            final boolean balanced = braceDepth >= 0;
+            if (process(chars[i]) && braceDepth == 0 || balanced && braceDepth < 0) {
+                return i + 1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * @return true if a '}' has been scanned at the root of the document with no block for it to close, in which case
+     *         the document is invalid. No further boundaries are found after the one following that brace.
+     */
+    boolean isUnbalanced() {
+        return braceDepth < 0;
+    }
+
+    /**
+     * Advance past a single character of a child block whose opening brace has already been consumed.
+     *
+     * @param c the character
+     * @return true if c is the brace closing the block
+     */
+    boolean closesBlock(char c) {
+        process(c);
+        return braceDepth < 0;
+    }
+
+    /**
+     * @return the number of linespace characters scanned so far
+     */
+    int getLines() {
+        return lines;
+    }
+
+    /**
+     * Advance the state by a single character.
+     *
+     * @param c the character
+     * @return true if c is a newline ending the current line of the document, outside any string or comment
+     */
+    private boolean process(char c) {
+        final boolean linespace = isUnicodeLinespace(c);
+        if (linespace) {
+            lines++;
+        }
+
+        return step(c, linespace);
+    }
+
+    private boolean step(char c, boolean linespace) {
+        switch (mode) {
+            case SLASH:
+                if (c == '/') {
+                    mode = Mode.LINE_COMMENT;
+                    return false;
+                } else if (c == '*') {
+                    mode = Mode.BLOCK_COMMENT;
+                    commentDepth = 1;
+                    return false;
+                }
+
+                mode = Mode.NORMAL;
+                return processNormal(c, linespace);
+
+            case LINE_COMMENT:
+                if (linespace) {
+                    mode = Mode.NORMAL;
+                    return endOfLine();
+                }
+                return false;
+
+            case BLOCK_COMMENT:
+                if (c == '/') {
+                    mode = Mode.BLOCK_COMMENT_SLASH;
+                } else if (c == '*') {
+                    mode = Mode.BLOCK_COMMENT_STAR;
+                }
+                return false;
+
+            case BLOCK_COMMENT_SLASH:
+                if (c == '*') {
+                    commentDepth++;
+                    mode = Mode.BLOCK_COMMENT;
+                    return false;
+                }
+
+                mode = Mode.BLOCK_COMMENT;
+                return step(c, linespace);
+
+            case BLOCK_COMMENT_STAR:
+                if (c == '/') {
+                    commentDepth--;
+                    mode = commentDepth == 0 ? Mode.NORMAL : Mode.BLOCK_COMMENT;
+                    afterIdentifierChar = false;
+                    return false;
+                }
+
+                mode = Mode.BLOCK_COMMENT;
+                return step(c, linespace);
+
+            case STRING:
+                if (c == '\\') {
+                    mode = Mode.STRING_ESCAPE;
+                } else if (c == '"') {
+                    mode = Mode.NORMAL;
+                    afterIdentifierChar = false;
+                }
+                return false;
+
+            case STRING_ESCAPE:
+                mode = Mode.STRING;
+                return false;
+
+            case RAW_STRING_OPEN:
+                if (c == '#') {
+                    hashDepth++;
+                    return false;
+                } else if (c == '"') {
+                    mode = Mode.RAW_STRING;
+                    return false;
+                }
+
+                mode = Mode.NORMAL;
+                afterIdentifierChar = true;
+                return processNormal(c, linespace);
+
+            case RAW_STRING:
+                if (c == '"') {
+                    hashCount = 0;
+                    mode = hashDepth == 0 ? Mode.NORMAL : Mode.RAW_STRING_CLOSE;
+                    afterIdentifierChar = false;
+                }
+                return false;
+
+            case RAW_STRING_CLOSE:
+                if (c == '#') {
+                    hashCount++;
+                    if (hashCount == hashDepth) {
+                        mode = Mode.NORMAL;
+                    }
+                    return false;
+                }
+
+                mode = Mode.RAW_STRING;
+                return step(c, linespace);
+
+            default:
+                return processNormal(c, linespace);
+        }
+    }
+
+    private boolean processNormal(char c, boolean linespace) {
+        final boolean wasAfterIdentifierChar = afterIdentifierChar;
+        afterIdentifierChar = false;
+
+        if (linespace) {
+            return endOfLine();
+        }
+
+        switch (c) {
+            case '/':
+                mode = Mode.SLASH;
+                return false;
+            case '"':
+                mode = Mode.STRING;
+                return false;
+            case '\\':
+                lineEscaped = true;
+                return false;
+            case '{':
+                braceDepth++;
+                return false;
+            case '}':
+                braceDepth--;
+                return false;
+            case 'r':
+                if (!wasAfterIdentifierChar) {
+                    mode = Mode.RAW_STRING_OPEN;
+                    hashDepth = 0;
+                    return false;
+                }
+                afterIdentifierChar = true;
+                return false;
+            default:
+                afterIdentifierChar = isValidBareIdChar(c);
+                return false;
+        }
+    }
+
+    private boolean endOfLine() {
+        if (lineEscaped) {
+            lineEscaped = false;
+            return false;
+        }
+
+        return true;
+    }
+}
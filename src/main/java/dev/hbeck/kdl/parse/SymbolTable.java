@@ -0,0 +1,113 @@
+package dev.hbeck.kdl.parse;
+
+/**
+ * A table of canonical String instances for the node identifiers, property keys, and type annotations found in
+ * documents, so that each repeated name is held once rather than once per occurrence. Set one with
+ * {@link ParseConfig.Builder#setSymbolTable(SymbolTable)}. Symbols are looked up straight from the parser's buffer, so
+ * a symbol already in the table costs no allocation at all.
+ * <p>
+ * The table is bounded: each symbol maps to a single slot, and a new symbol replaces whatever was in its slot. Memory
+ * use never grows past the table's size, at the cost of some repeated allocation for documents with more distinct
+ * symbols than that. Tables are safe to share between parsers and threads.
+ */
+public class SymbolTable {
+    public static final int DEFAULT_SIZE = 4096;
+
+    // Longer strings are unlikely to repeat, and aren't worth comparing
+    private static final int MAX_SYMBOL_LENGTH = 128;
+
+    // Slots are read and written without synchronization. That's safe since Strings are immutable, at worst a symbol
+    // written by one thread isn't yet seen by another and is allocated again.
+    private final String[] symbols;
+    private final int mask;
+
+    public SymbolTable() {
+        this(DEFAULT_SIZE);
+    }
+
+    /**
+     * @param size the number of symbols the table may hold, rounded up to a power of two
+     */
+    public SymbolTable(int size) {
+        if (size < 1 || size > 1 << 30) {
+            throw new IllegalArgumentException(String.format("Symbol table size must be between 1 and 2^30, got %d", size));
+        }
+
+        int capacity = 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+
+        this.symbols = new String[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Get the canonical instance of a symbol.
+     *
+     * @param chars the array holding the symbol
+     * @param offset the index of the first character of the symbol
+     * @param length the number of characters in the symbol
+     * @return a String equal to the symbol, the same instance as returned for any previous equal symbol still held
+     */
+    public String intern(char[] chars, int offset, int length) {
+        if (length > MAX_SYMBOL_LENGTH) {
+            return new String(chars, offset, length);
+        }
+
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+
+        final int slot = spread(hash) & mask;
+        final String existing = symbols[slot];
+        if (existing != null && existing.hashCode() == hash && matches(existing, chars, offset, length)) {
+            return existing;
+        }
+
+        final String symbol = new String(chars, offset, length);
+        symbols[slot] = symbol;
+        return symbol;
+    }
+
+    /**
+     * Get the canonical instance of a symbol.
+     *
+     * @param symbol the symbol
+     * @return a String equal to the symbol, the same instance as returned for any previous equal symbol still held
+     */
+    public String intern(String symbol) {
+        if (symbol.length() > MAX_SYMBOL_LENGTH) {
+            return symbol;
+        }
+
+        final int slot = spread(symbol.hashCode()) & mask;
+        final String existing = symbols[slot];
+        if (symbol.equals(existing)) {
+            return existing;
+        }
+
+        symbols[slot] = symbol;
+        return symbol;
+    }
+
+    private static boolean matches(String symbol, char[] chars, int offset, int length) {
+        if (symbol.length() != length) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (symbol.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // Mix the high bits of String's hash into the low bits used to pick a slot
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,300 @@
+package dev.hbeck.kdl.parse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static dev.hbeck.kdl.parse.KDLParser.EOF;
+import static dev.hbeck.kdl.parse.KDLParser.MAX_UNICODE;
+
+/**
+ * Internal Reader decoding UTF-8 straight out of a byte array, ByteBuffer, InputStream, or memory-mapped file. Runs of ASCII, which make up
+ * all of KDL's syntax and most documents, are widened to chars in a tight loop, with only non-ASCII sequences taking
+ * the full decoding path. A leading byte order mark is dropped.
+ * <p>
+ * Multi-byte sequences may be split across refills of the underlying bytes, the partially decoded character is carried
+ * over until the rest arrives. Files are mapped a window at a time, so files larger than a single mapping's 2GB limit
+ * may be read.
+ */
+class Utf8Reader extends Reader {
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int DEFAULT_MAP_WINDOW_SIZE = 1 << 30;
+
+    private static final int BOM = 0xFEFF;
+
+    private final InputStream stream;
+    private final FileChannel channel;
+    private final int windowSize;
+
+    private ByteBuffer bytes;
+    private long mapped = 0;
+    private boolean awaitingInput = false;
+
+    private int codePoint = 0;
+    private int remaining = 0;
+    private int minimum = 0;
+    private char pendingLowSurrogate = 0;
+    private boolean atStart = true;
+    private boolean skippedBom = false;
+
+    /**
+     * Decode the remaining bytes of the buffer. The buffer's position is not changed.
+     *
+     * @param bytes the bytes to decode
+     */
+    Utf8Reader(ByteBuffer bytes) {
+        this.stream = null;
+        this.channel = null;
+        this.windowSize = 0;
+        this.bytes = bytes.duplicate();
+    }
+
+    Utf8Reader(byte[] bytes, int offset, int length) {
+        this(ByteBuffer.wrap(bytes, offset, length));
+    }
+
+    Utf8Reader(InputStream stream) {
+        this(stream, DEFAULT_BUFFER_SIZE);
+    }
+
+    Utf8Reader(InputStream stream, int bufferSize) {
+        this.stream = stream;
+        this.channel = null;
+        this.windowSize = 0;
+        this.bytes = ByteBuffer.allocate(bufferSize);
+        this.bytes.limit(0);
+    }
+
+    /**
+     * Decode the contents of a file, mapping it into memory one window at a time. The channel isn't closed when the
+     * reader is.
+     *
+     * @param channel the channel to map, read from its start
+     */
+    Utf8Reader(FileChannel channel) {
+        this(channel, DEFAULT_MAP_WINDOW_SIZE);
+    }
+
+    Utf8Reader(FileChannel channel, int windowSize) {
+        this.stream = null;
+        this.channel = channel;
+        this.windowSize = windowSize;
+        this.bytes = ByteBuffer.allocate(0);
+    }
+
+    /**
+     * Decode bytes handed over with feed() as they arrive. Until endInput() is called, EOF only indicates that the
+     * bytes fed so far have been decoded, and an incomplete sequence is held until the next feed.
+     */
+    Utf8Reader() {
+        this.stream = null;
+        this.channel = null;
+        this.windowSize = 0;
+        this.bytes = ByteBuffer.allocate(0);
+        this.awaitingInput = true;
+    }
+
+    /**
+     * Replace the bytes being decoded. The buffer's position is advanced as it's decoded.
+     *
+     * @param bytes the next bytes of the input
+     */
+    void feed(ByteBuffer bytes) {
+        if (this.bytes.hasRemaining()) {
+            throw new KDLInternalException("Fed more bytes before the previous ones were decoded");
+        }
+
+        this.bytes = bytes;
+    }
+
+    /**
+     * Signal that no more bytes will be fed, after which an incomplete sequence is an error.
+     */
+    void endInput() {
+        awaitingInput = false;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            final int decoded = decode(cbuf, off, len);
+            if (decoded > 0) {
+                return decoded;
+            } else if (!refill()) {
+                if (remaining > 0 && !awaitingInput) {
+                    throw new KDLParseException("Input ended in the middle of a UTF-8 sequence");
+                }
+                return EOF;
+            }
+        }
+    }
+
+    /**
+     * Pull the next block of bytes from the stream, if there is one. Only called once the current block is drained.
+     *
+     * @return true if more bytes are available, false if the input is exhausted
+     * @throws IOException if any error occurs reading from the stream
+     */
+    boolean refill() throws IOException {
+        if (channel != null) {
+            return remap();
+        } else if (stream == null) {
+            return false;
+        }
+
+        final byte[] array = bytes.array();
+        int read;
+        do {
+            read = stream.read(array, 0, array.length);
+        } while (read == 0);
+
+        if (read == EOF) {
+            return false;
+        }
+
+        bytes.position(0);
+        bytes.limit(read);
+        return true;
+    }
+
+    private boolean remap() throws IOException {
+        final long size = channel.size();
+        if (mapped >= size) {
+            return false;
+        }
+
+        final long length = Math.min(windowSize, size - mapped);
+        bytes = channel.map(FileChannel.MapMode.READ_ONLY, mapped, length);
+        mapped += length;
+        return true;
+    }
+
+    private int decode(char[] cbuf, int off, int len) {
+        int written = 0;
+        if (pendingLowSurrogate != 0) {
+            cbuf[off] = pendingLowSurrogate;
+            pendingLowSurrogate = 0;
+            written++;
+        }
+
+        final ByteBuffer bytes = this.bytes;
+        final byte[] array = bytes.hasArray() ? bytes.array() : null;
+        final int base = array == null ? 0 : bytes.arrayOffset();
+        final int limit = bytes.limit();
+        int position = bytes.position();
+
+        while (written < len && position < limit) {
+            if (remaining == 0) {
+                final int asciiStart = position;
+                final int end = Math.min(limit, position + len - written);
+                if (array != null) {
+                    while (position < end && array[base + position] >= 0) {
+                        cbuf[off + written++] = (char) array[base + position++];
+                    }
+                } else {
+                    while (position < end && bytes.get(position) >= 0) {
+                        cbuf[off + written++] = (char) bytes.get(position++);
+                    }
+                }
+
+                if (position != asciiStart) {
+                    atStart = false;
+                }
+
+                if (position == end) {
+                    break;
+                }
+            }
+
+            final int b = (array != null ? array[base + position] : bytes.get(position)) & 0xFF;
+            position++;
+            if (remaining == 0) {
+                if ((b & 0xE0) == 0xC0) {
+                    codePoint = b & 0x1F;
+                    remaining = 1;
+                    minimum = 0x80;
+                } else if ((b & 0xF0) == 0xE0) {
+                    codePoint = b & 0x0F;
+                    remaining = 2;
+                    minimum = 0x800;
+                } else if ((b & 0xF8) == 0xF0) {
+                    codePoint = b & 0x07;
+                    remaining = 3;
+                    minimum = 0x10000;
+                } else if (written > 0) {
+                    // Hand over what was decoded before the invalid byte, which fails the next read
+                    bytes.position(position - 1);
+                    return written;
+                } else {
+                    throw new KDLParseException(String.format("Invalid UTF-8 lead byte: 0x%02X", b));
+                }
+            } else if ((b & 0xC0) != 0x80) {
+                if (written > 0) {
+                    bytes.position(position - 1);
+                    return written;
+                }
+                throw new KDLParseException(String.format("Invalid UTF-8 continuation byte: 0x%02X", b));
+            } else {
+                codePoint = (codePoint << 6) | (b & 0x3F);
+                remaining--;
+            }
+
+            if (remaining == 0) {
+                written += emit(cbuf, off + written, len - written);
+            }
+        }
+
+        bytes.position(position);
+        return written;
+    }
+
+    private int emit(char[] cbuf, int off, int available) {
+        final int c = codePoint;
+        if (c < minimum || c > MAX_UNICODE || (Character.MIN_SURROGATE <= c && c <= Character.MAX_SURROGATE)) {
+            throw new KDLParseException(String.format("Invalid UTF-8 sequence for code point U+%04X", c));
+        }
+        minimum = 0;
+
+        if (atStart) {
+            atStart = false;
+            if (c == BOM) {
+                skippedBom = true;
+                return 0;
+            }
+        }
+
+        if (c < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            cbuf[off] = (char) c;
+            return 1;
+        }
+
+        cbuf[off] = Character.highSurrogate(c);
+        if (available > 1) {
+            cbuf[off + 1] = Character.lowSurrogate(c);
+            return 2;
+        } else {
+            pendingLowSurrogate = Character.lowSurrogate(c);
+            return 1;
+        }
+    }
+
+    /**
+     * @return true if the input started with a byte order mark, which was dropped rather than decoded
+     */
+    boolean skippedBom() {
+        return skippedBom;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
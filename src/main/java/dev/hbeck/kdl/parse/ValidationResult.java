@@ -0,0 +1,90 @@
+package dev.hbeck.kdl.parse;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The outcome of {@link KDLParser#validate(CharSequence)}. Valid documents all share a single result, invalid ones
+ * report where the first error was found and what it was.
+ */
+public final class ValidationResult {
+    static final ValidationResult VALID = new ValidationResult(-1, 0, 0, null);
+
+    private final long offset;
+    private final int line;
+    private final int column;
+    private final String message;
+
+    private ValidationResult(long offset, int line, int column, String message) {
+        this.offset = offset;
+        this.line = line;
+        this.column = column;
+        this.message = message;
+    }
+
+    static ValidationResult invalid(long offset, int line, int column, String message) {
+        return new ValidationResult(offset, line, column, message);
+    }
+
+    /**
+     * @return true if the document is valid KDL within the parser's limits
+     */
+    public boolean isValid() {
+        return message == null;
+    }
+
+    /**
+     * @return the number of characters from the start of the document to the error, or -1 if the document is valid
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return the line of the error counting from 1, or 0 if the document is valid
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * @return the column of the error within its line counting from 1, or 0 if the document is valid
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * @return a description of the error, if the document is invalid
+     */
+    public Optional<String> getMessage() {
+        return Optional.ofNullable(message);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ValidationResult)) return false;
+        ValidationResult that = (ValidationResult) o;
+        return offset == that.offset && line == that.line && column == that.column && Objects.equals(message, that.message);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(offset, line, column, message);
+    }
+
+    @Override
+    public String toString() {
+        if (message == null) {
+            return "ValidationResult{valid}";
+        }
+
+        return "ValidationResult{" +
+                "offset=" + offset +
+                ", line=" + line +
+                ", column=" + column +
+                ", message='" + message + '\'' +
+                '}';
+    }
+}
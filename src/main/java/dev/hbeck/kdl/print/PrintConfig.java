@@ -37,6 +37,9 @@ public class PrintConfig {
     private final boolean printNullArgs;
     private final boolean printNullProps;
 
+    // requiresEscape() for each Latin-1 character, which make up nearly all of most strings
+    private final boolean[] latin1Escapes;
+
     private PrintConfig(Map<Integer, Boolean> escapes, boolean escapeNonPrintableAscii, boolean escapeLinespace,
                         boolean escapeNonAscii, boolean escapeCommon, boolean requireSemicolons, boolean respectRadix, String newline,
                         int indent, char indentChar, char exponentChar, boolean printEmptyChildren, boolean printNullArgs,
@@ -56,9 +59,18 @@ public class PrintConfig {
         this.printEmptyChildren = printEmptyChildren;
         this.printNullArgs = printNullArgs;
         this.printNullProps = printNullProps;
+
+        this.latin1Escapes = new boolean[256];
+        for (int c = 0; c < latin1Escapes.length; c++) {
+            latin1Escapes[c] = computeRequiresEscape(c);
+        }
     }
 
     public boolean requiresEscape(int c) {
+        return c >>> 8 == 0 ? latin1Escapes[c] : computeRequiresEscape(c);
+    }
+
+    private boolean computeRequiresEscape(int c) {
         if (shouldForceEscape(c)) {
             return true;
         } else if (mustEscape(c)) {
@@ -19,14 +19,17 @@ public class PrintUtil {
         }
 
         writer.write('"');
+        // Characters not needing escapes are written in runs rather than one at a time
+        int runStart = 0;
         for (int i = 0; i < string.length(); i++) {
             final int c = string.charAt(i);
             if (printConfig.requiresEscape(c)) {
+                writer.write(string, runStart, i - runStart);
                 writer.write(getEscapeIncludingUnicode(c));
-            } else {
-                writer.write(c);
+                runStart = i + 1;
             }
         }
+        writer.write(string, runStart, string.length() - runStart);
         writer.write('"');
     }
 }
@@ -0,0 +1,80 @@
+package dev.hbeck.kdl.bench;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import dev.hbeck.kdl.parse.KDLParser;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Reports the bytes allocated per node parsed from a generated document of small nodes with a few arguments and
+ * properties each. Run its main method directly, allocation is measured with the HotSpot thread allocation counter.
+ */
+public class ParseAllocationBenchmark {
+    private static final int NODES = 20_000;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int ROUNDS = 20;
+
+    public static void main(String[] args) {
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long thread = Thread.currentThread().getId();
+        final String document = generate();
+        final KDLParser parser = new KDLParser();
+
+        long nodes = 0;
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            nodes += count(parser.parse(document));
+        }
+
+        nodes = 0;
+        final long startBytes = threads.getThreadAllocatedBytes(thread);
+        final long startTime = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            nodes += count(parser.parse(document));
+        }
+        final long elapsed = System.nanoTime() - startTime;
+        final long allocated = threads.getThreadAllocatedBytes(thread) - startBytes;
+
+        System.out.printf("%d nodes parsed, %.1f bytes and %.1f ns per node%n",
+                nodes, (double) allocated / nodes, (double) elapsed / nodes);
+    }
+
+    private static String generate() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < NODES; i++) {
+            if (i % 10 == 0) {
+                builder.append("group ").append(i).append(" {\n");
+            }
+
+            builder.append("    ");
+            switch (i % 4) {
+                case 0:
+                    builder.append("item ").append(i).append(" \"name\" enabled=true\n");
+                    break;
+                case 1:
+                    builder.append("item port=").append(i).append(" host=\"localhost\"\n");
+                    break;
+                case 2:
+                    builder.append("flag\n");
+                    break;
+                default:
+                    builder.append("item 1.5 0x").append(Integer.toHexString(i)).append('\n');
+            }
+
+            if (i % 10 == 9) {
+                builder.append("}\n");
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static long count(KDLDocument document) {
+        long count = 0;
+        for (KDLNode node : document.getNodes()) {
+            count += 1 + node.getChild().map(ParseAllocationBenchmark::count).orElse(0L);
+        }
+
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLNode;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestCancellation {
+    private static final String MANY_NODES = repeat("node 1 2 \"three\"\n", 10000);
+    private static final String ONE_LONG_NODE = "node \"" + repeat("x", 100000) + "\"\n";
+
+    @Test
+    public void test_timeout() throws IOException {
+        final KDLParser expired = new KDLParser(ParseConfig.builder().setTimeout(Duration.ZERO).build());
+        assertCancelled(expired, MANY_NODES);
+        assertCancelled(expired, ONE_LONG_NODE);
+        assertThat(() -> expired.parse(MANY_NODES), throwsException(KDLCancelledException.class));
+        assertThat(() -> expired.parse(ONE_LONG_NODE), throwsException(KDLCancelledException.class));
+        assertThat(() -> expired.validate(ONE_LONG_NODE), throwsException(KDLCancelledException.class));
+        assertThat(() -> expired.parse("node " + repeat("1 k=2 ", 1000)), throwsException(KDLCancelledException.class));
+        assertThat(() -> expired.parse("/* " + repeat("x", 100000) + " */ node"), throwsException(KDLCancelledException.class));
+        assertThat(() -> expired.parse("// " + repeat("x", 100000) + "\nnode"), throwsException(KDLCancelledException.class));
+        assertThat(() -> expired.parse("node r#\"" + repeat("x", 100000) + "\"#"), throwsException(KDLCancelledException.class));
+
+        final KDLParser generous = new KDLParser(ParseConfig.builder().setTimeout(Duration.ofMinutes(10)).build());
+        assertThat(generous.parse(new StringReader(MANY_NODES)), equalTo(parser.parse(MANY_NODES)));
+        assertThat(() -> ParseConfig.builder().setTimeout(Duration.ofMillis(-1)), throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void test_oneDeadlinePerParse() throws InterruptedException {
+        final ParseConfig.Builder config = ParseConfig.builder().setTimeout(Duration.ofMillis(50));
+        final KDLParser lazy = new KDLParser(config.setParseChildrenLazily(true).build());
+        final KDLNode node = lazy.parse("parent {\n" + MANY_NODES + "}\n").getNodes().get(0);
+        Thread.sleep(100);
+        assertThat(node::getChild, throwsException(KDLCancelledException.class));
+
+        final KDLFeedParser feed = new KDLParser(config.setParseChildrenLazily(false).build()).feedParser(n -> {});
+        feed.feed("a\n".toCharArray(), 0, 2);
+        Thread.sleep(100);
+        assertThat(() -> feed.feed(MANY_NODES.toCharArray(), 0, MANY_NODES.length()), throwsException(KDLCancelledException.class));
+    }
+
+    @Test
+    public void test_cancellation() throws IOException {
+        final AtomicInteger polls = new AtomicInteger();
+        final KDLParser cancellable = new KDLParser(ParseConfig.builder()
+                .setCancellation(() -> polls.incrementAndGet() > 3)
+                .build());
+
+        assertCancelled(cancellable, MANY_NODES);
+        assertThat(polls.get(), equalTo(4));
+    }
+
+    @Test
+    public void test_interruption() throws IOException {
+        final KDLParser interruptible = new KDLParser(ParseConfig.builder().setInterruptible(true).build());
+        try {
+            Thread.currentThread().interrupt();
+            assertCancelled(interruptible, MANY_NODES);
+            assertThat(Thread.currentThread().isInterrupted(), equalTo(true));
+            assertThat(parser.parse(new StringReader(MANY_NODES)).getNodes().size(), equalTo(10000));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertThat(interruptible.parse(new StringReader(MANY_NODES)).getNodes().size(), equalTo(10000));
+    }
+
+    private static void assertCancelled(KDLParser parser, String doc) throws IOException {
+        try {
+            parser.parse(new StringReader(doc));
+            fail("Expected the parse to be cancelled");
+        } catch (KDLCancelledException e) {
+            // Expected
+        }
+    }
+
+    private static String repeat(String s, int times) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+
+        return builder.toString();
+    }
+}
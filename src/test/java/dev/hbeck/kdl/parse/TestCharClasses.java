@@ -0,0 +1,38 @@
+package dev.hbeck.kdl.parse;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static dev.hbeck.kdl.parse.CharClasses.isUnicodeLinespace;
+import static dev.hbeck.kdl.parse.CharClasses.isUnicodeWhitespace;
+import static dev.hbeck.kdl.parse.CharClasses.isValidBareIdChar;
+import static dev.hbeck.kdl.parse.CharClasses.isValidBareIdStart;
+import static dev.hbeck.kdl.parse.CharClasses.isValidDecimalChar;
+import static dev.hbeck.kdl.parse.CharClasses.isValidHexChar;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestCharClasses {
+    private static final List<Integer> WHITESPACE = Arrays.asList(0x09, 0x20, 0xA0, 0x1680, 0x2000, 0x2001, 0x2002,
+            0x2003, 0x2004, 0x2005, 0x2006, 0x2007, 0x2008, 0x2009, 0x200A, 0x202F, 0x205F, 0x3000);
+    private static final List<Integer> LINESPACE = Arrays.asList(0x0A, 0x0C, 0x0D, 0x85, 0x2028, 0x2029);
+    private static final String NON_ID_CHARS = "\\/(){}<>;[]=,\"";
+
+    @Test
+    public void test_classesAcrossRanges() {
+        for (int c = -1; c <= 0x10FFFF + 1; c++) {
+            final String message = String.format("U+%04X", c);
+            final boolean bareIdChar = c > 0x20 && c <= 0x10FFFF && c != 0xFEFF && NON_ID_CHARS.indexOf(c) == -1
+                    && !WHITESPACE.contains(c) && !LINESPACE.contains(c);
+
+            assertThat(message, isUnicodeWhitespace(c), equalTo(WHITESPACE.contains(c)));
+            assertThat(message, isUnicodeLinespace(c), equalTo(LINESPACE.contains(c)));
+            assertThat(message, isValidBareIdChar(c), equalTo(bareIdChar));
+            assertThat(message, isValidBareIdStart(c), equalTo(bareIdChar && !('0' <= c && c <= '9')));
+            assertThat(message, isValidDecimalChar(c), equalTo('0' <= c && c <= '9'));
+            assertThat(message, isValidHexChar(c), equalTo(c != -1 && Character.digit(c, 16) != -1 && c < 0x80));
+        }
+    }
+}
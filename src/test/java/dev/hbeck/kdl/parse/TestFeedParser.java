@@ -0,0 +1,115 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLNode;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestFeedParser {
+    private static final String DOC = "node \"esc\\u{2603}aped \\\"\\n\" r##\"raw \"# \"##\n" +
+            "/* block /* nested */\n comment */ other key=\"\u00E9\" {\n" +
+            "    child \"\uD83D\uDE00\" // comment \" {\n" +
+            "    /-skipped {\n        a\n    }\n" +
+            "}\n" +
+            "continued \\\n    1; last 2";
+
+    @Test
+    public void test_chars() {
+        final List<KDLNode> expected = parser.parse(DOC).getNodes();
+        final char[] chars = DOC.toCharArray();
+
+        for (int chunkSize = 1; chunkSize < chars.length + 1; chunkSize++) {
+            final List<KDLNode> nodes = new ArrayList<>();
+            final KDLFeedParser feedParser = parser.feedParser(nodes::add);
+            for (int i = 0; i < chars.length; i += chunkSize) {
+                feedParser.feed(chars, i, Math.min(chunkSize, chars.length - i));
+            }
+            feedParser.finish();
+
+            assertThat(nodes, equalTo(expected));
+        }
+    }
+
+    @Test
+    public void test_bytes() {
+        final List<KDLNode> expected = parser.parse(DOC).getNodes();
+        final byte[] bytes = DOC.getBytes(StandardCharsets.UTF_8);
+
+        for (int chunkSize = 1; chunkSize < bytes.length + 1; chunkSize++) {
+            final List<KDLNode> nodes = new ArrayList<>();
+            final KDLFeedParser feedParser = parser.feedParser(nodes::add);
+            for (int i = 0; i < bytes.length; i += chunkSize) {
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes, i, Math.min(chunkSize, bytes.length - i));
+                feedParser.feed(buffer);
+                assertThat(buffer.hasRemaining(), equalTo(false));
+            }
+            feedParser.finish();
+
+            assertThat(nodes, equalTo(expected));
+        }
+    }
+
+    @Test
+    public void test_nodesEmittedWhenComplete() {
+        final List<KDLNode> nodes = new ArrayList<>();
+        final KDLFeedParser feedParser = parser.feedParser(nodes::add);
+
+        feed(feedParser, "a 1\nb {\n    c \"");
+        assertThat(nodes.size(), equalTo(1));
+        assertThat(nodes.get(0).getIdentifier(), equalTo("a"));
+
+        feed(feedParser, "\n\"\n}");
+        assertThat(nodes.size(), equalTo(1));
+
+        feed(feedParser, "\n");
+        assertThat(nodes.size(), equalTo(2));
+        assertThat(nodes.get(1), equalTo(parser.parse("b {\n    c \"\n\"\n}").getNodes().get(0)));
+
+        feedParser.finish();
+        assertThat(nodes.size(), equalTo(2));
+        assertThat(() -> feed(feedParser, "d"), throwsException(IllegalStateException.class));
+    }
+
+    @Test
+    public void test_errors() {
+        final KDLFeedParser unterminated = parser.feedParser(node -> {});
+        feed(unterminated, "a {\n");
+        assertThat(unterminated::finish, throwsException(KDLParseException.class));
+
+        final KDLFeedParser partialSequence = parser.feedParser(node -> {});
+        partialSequence.feed(ByteBuffer.wrap(new byte[]{'a', ' ', (byte) 0xE2, (byte) 0x98}));
+        assertThat(partialSequence::finish, throwsException(KDLParseException.class));
+
+        final KDLFeedParser invalid = parser.feedParser(node -> {});
+        try {
+            feed(invalid, "a\nb\nc \"d\" e\n");
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString("Line 3:"));
+        }
+        assertThat(invalid::finish, throwsException(IllegalStateException.class));
+
+        final KDLFeedParser strayBrace = parser.feedParser(node -> {});
+        try {
+            feed(strayBrace, "a\n} b {\n    c");
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString("Line 2:"));
+        }
+        assertThat(() -> feed(strayBrace, "\n}\n"), throwsException(IllegalStateException.class));
+    }
+
+    private static void feed(KDLFeedParser feedParser, String input) {
+        feedParser.feed(input.toCharArray(), 0, input.length());
+    }
+}
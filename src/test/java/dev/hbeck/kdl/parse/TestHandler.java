@@ -0,0 +1,92 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLValue;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestHandler {
+    @Test
+    public void test_callbacks() {
+        final RecordingHandler handler = new RecordingHandler();
+        parser.parse("(t)a 1 key=\"v\" /-2 {\n    b\n    /-c\n}\nd /-{\n    e\n}", handler);
+
+        assertThat(handler.calls, equalTo(Arrays.asList(
+                "startNode t a", "arg 1", "prop key v", "startChildren",
+                "startNode b", "endNode",
+                "endChildren", "endNode",
+                "startNode d", "endNode",
+                "endDocument")));
+    }
+
+    @Test
+    public void test_documentHandler() throws IOException {
+        final String doc = "a 1 2 key=\"v\" {\n    b {\n        c; d\n    }\n}\ne";
+        final KDLDocumentHandler handler = new KDLDocumentHandler();
+        parser.parse(new StringReader(doc), handler);
+
+        assertThat(handler.getDocument(), equalTo(parser.parse(doc)));
+    }
+
+    @Test
+    public void test_handlerExceptionsPassedThrough() {
+        final KDLHandler handler = new KDLHandler() {
+            @Override
+            public void arg(KDLValue<?> value) {
+                throw new IllegalStateException();
+            }
+        };
+
+        assertThat(() -> parser.parse("a 1", handler), throwsException(IllegalStateException.class));
+        assertThat(() -> parser.parse("a {", handler), throwsException(KDLParseException.class));
+    }
+
+    private static class RecordingHandler implements KDLHandler {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public void startNode(String identifier, Optional<String> type) {
+            calls.add("startNode " + type.map(t -> t + " ").orElse("") + identifier);
+        }
+
+        @Override
+        public void arg(KDLValue<?> value) {
+            calls.add("arg " + value.getAsString().getValue());
+        }
+
+        @Override
+        public void prop(String key, KDLValue<?> value) {
+            calls.add("prop " + key + " " + value.getAsString().getValue());
+        }
+
+        @Override
+        public void startChildren() {
+            calls.add("startChildren");
+        }
+
+        @Override
+        public void endChildren() {
+            calls.add("endChildren");
+        }
+
+        @Override
+        public void endNode() {
+            calls.add("endNode");
+        }
+
+        @Override
+        public void endDocument() {
+            calls.add("endDocument");
+        }
+    }
+}
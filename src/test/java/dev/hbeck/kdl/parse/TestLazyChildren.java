@@ -0,0 +1,72 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestLazyChildren {
+    private static final KDLParser lazyParser = new KDLParser(ParseConfig.builder()
+            .setParseChildrenLazily(true)
+            .build());
+
+    @Test
+    public void test_matchesEagerParse() throws IOException {
+        final String doc = "a 1 {\n    b r#\"}\"# \"}\" {\n        // }\n        c /* } */\n    }\n    /-d { e; }\n}; f {}\n";
+
+        assertThat(lazyParser.parse(doc), equalTo(parser.parse(doc)));
+        assertThat(lazyParser.parse(new StringReader(doc)), equalTo(parser.parse(doc)));
+        assertThat(lazyParser.parseNodes(new StringReader(doc)).next(), equalTo(parser.parse(doc).getNodes().get(0)));
+    }
+
+    @Test
+    public void test_testCases() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            KDLDocument expected = null;
+            try {
+                expected = parser.parse(doc);
+            } catch (KDLParseException e) {
+                assertThat(input.toString(), () -> lazyParser.parse(doc).toKDL(), throwsException(KDLParseException.class));
+            }
+
+            if (expected != null) {
+                assertThat(input.toString(), lazyParser.parse(doc), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void test_errorsDeferred() {
+        final KDLDocument doc = lazyParser.parse("a {\n    b {\n        c d\n    }\n}\ne");
+        final KDLNode a = doc.getNodes().get(0);
+        final KDLNode b = a.getChild().get().getNodes().get(0);
+
+        try {
+            b.getChild();
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString("Line 3:"));
+        }
+
+        assertThat(() -> lazyParser.parse("a {\n    b \"}\n"), throwsException(KDLParseException.class));
+    }
+}
@@ -0,0 +1,116 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import dev.hbeck.kdl.objects.KDLNumber;
+import dev.hbeck.kdl.objects.KDLString;
+import dev.hbeck.kdl.objects.KDLValue;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+public class TestLazyValues {
+    private static final KDLParser lazyParser = new KDLParser(ParseConfig.builder()
+            .setParseValuesLazily(true)
+            .build());
+
+    @Test
+    public void test_stringsReadInPlace() {
+        final String doc = "node \"plain\" \"esc\\taped\" r#\"raw\"\"#\n";
+        final KDLNode node = lazyParser.parse(doc).getNodes().get(0);
+        final List<KDLValue<?>> args = node.getArgs();
+
+        final CharSequence plain = ((KDLString) args.get(0)).getChars();
+        assertThat(plain, not(instanceOf(String.class)));
+        assertThat(plain.length(), equalTo(5));
+        assertThat(plain.charAt(1), equalTo('l'));
+        assertThat(plain.subSequence(1, 4).toString(), equalTo("lai"));
+        assertThat(() -> plain.charAt(5), throwsException(IndexOutOfBoundsException.class));
+
+        final CharSequence escaped = ((KDLString) args.get(1)).getChars();
+        assertThat(escaped.length(), equalTo(8));
+        assertThat(escaped.charAt(3), equalTo('\t'));
+
+        assertThat(args.get(0).getValue(), equalTo("plain"));
+        assertThat(args.get(1).getValue(), equalTo("esc\taped"));
+        assertThat(args.get(2).getValue(), equalTo("raw\""));
+    }
+
+    @Test
+    public void test_numbers() {
+        final KDLNode node = lazyParser.parse("node 10 1.5 -2e-3 1_000.0_1 99999999999999999999 0x10\n").getNodes().get(0);
+        final List<KDLValue<?>> args = node.getArgs();
+
+        assertThat(args.get(0).getValue(), equalTo(10L));
+        assertThat(args.get(1).getValue(), equalTo(new BigDecimal("1.5")));
+        assertThat(args.get(2).getValue(), equalTo(new BigDecimal("-2e-3")));
+        assertThat(args.get(3).getValue(), equalTo(new BigDecimal("1000.01")));
+        assertThat(args.get(4).getValue(), equalTo(new BigDecimal("99999999999999999999")));
+        assertThat(args.get(5), equalTo(KDLNumber.fromLong(16, 16, Optional.empty())));
+    }
+
+    @Test
+    public void test_errorsReportedWhenParsed() {
+        assertThat(() -> lazyParser.parse("node \"\\q\""), throwsException(KDLParseException.class));
+        assertThat(() -> lazyParser.parse("node \"\\u{110000}\""), throwsException(KDLParseException.class));
+        assertThat(() -> lazyParser.parse("node \"open"), throwsException(KDLParseException.class));
+        assertThat(() -> lazyParser.parse("node r##\"open\"#"), throwsException(KDLParseException.class));
+        assertThat(() -> lazyParser.parse("node 1e+"), throwsException(KDLInternalException.class));
+        assertThat(() -> lazyParser.parse("node 1e12345678901"), throwsException(KDLInternalException.class));
+    }
+
+    @Test
+    public void test_testCases() throws IOException {
+        final KDLParser lazyChildParser = new KDLParser(ParseConfig.builder()
+                .setParseValuesLazily(true)
+                .setParseChildrenLazily(true)
+                .build());
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            KDLDocument expected = null;
+            try {
+                expected = parser.parse(doc);
+            } catch (KDLParseException e) {
+                assertThat(input.toString(), () -> lazyParser.parse(doc), throwsException(KDLParseException.class));
+            }
+
+            if (expected != null) {
+                assertThat(input.toString(), lazyParser.parse(doc), equalTo(expected));
+                assertThat(input.toString(), lazyParser.parse(new StringReader(doc)), equalTo(expected));
+                assertThat(input.toString(), lazyChildParser.parse(doc), equalTo(expected));
+                assertThat(input.toString(), lazyParser.parse(doc).toKDL(), equalTo(expected.toKDL()));
+            }
+        }
+    }
+
+    @Test
+    public void test_feedParserCopiesValues() {
+        final List<KDLNode> nodes = new ArrayList<>();
+        final KDLFeedParser feedParser = lazyParser.feedParser(nodes::add);
+        final char[] chunk = "a \"one\" 1.5\nb \"two\" 2.5\n".toCharArray();
+        feedParser.feed(chunk, 0, chunk.length);
+        feedParser.finish();
+
+        assertThat(nodes, equalTo(parser.parse(new String(chunk)).getNodes()));
+    }
+}
@@ -0,0 +1,85 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLBoolean;
+import dev.hbeck.kdl.objects.KDLNode;
+import dev.hbeck.kdl.objects.KDLObjectsFacade;
+import dev.hbeck.kdl.objects.KDLNumber;
+import dev.hbeck.kdl.objects.KDLValue;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TestNodeStorage {
+    @Test
+    public void test_props() {
+        final KDLNode node = parser.parse("node c=3 a=1 b=2 a=4 1 2\n").getNodes().get(0);
+        final Map<String, KDLValue<?>> props = node.getProps();
+
+        final Map<String, KDLValue<?>> expected = new HashMap<>();
+        expected.put("a", number(4));
+        expected.put("b", number(2));
+        expected.put("c", number(3));
+        assertThat(props, equalTo(expected));
+        assertThat(props.hashCode(), equalTo(expected.hashCode()));
+        assertThat(new ArrayList<>(props.keySet()), equalTo(Arrays.asList("a", "b", "c")));
+        assertThat(props.get("b"), equalTo(number(2)));
+        assertThat(props.get("d"), nullValue());
+        assertThat(props.containsKey("c"), equalTo(true));
+        assertThat(props.containsKey(1), equalTo(false));
+        assertThat(node.getArgs(), equalTo(Arrays.asList(number(1), number(2))));
+
+        assertThat(() -> props.put("d", number(5)), throwsException(UnsupportedOperationException.class));
+        assertThat(() -> props.entrySet().iterator().next().setValue(number(5)), throwsException(UnsupportedOperationException.class));
+        assertThat(() -> node.getArgs().set(0, number(5)), throwsException(UnsupportedOperationException.class));
+    }
+
+    @Test
+    public void test_manyUnorderedProps() {
+        final StringBuilder doc = new StringBuilder("node");
+        final TreeMap<String, KDLValue<?>> expected = new TreeMap<>();
+        for (int i = 100; i > 0; i--) {
+            doc.append(" k").append(i % 70).append('=').append(i);
+            expected.put("k" + (i % 70), number(i));
+        }
+
+        final KDLNode node = parser.parse(doc.toString()).getNodes().get(0);
+        assertThat(node.getProps(), equalTo(expected));
+        assertThat(new ArrayList<>(node.getProps().keySet()), equalTo(new ArrayList<>(expected.keySet())));
+    }
+
+    @Test
+    public void test_sharedEmpties() {
+        final List<KDLNode> nodes = parser.parse("a\nb true null\nc true k=(t)true\n").getNodes();
+
+        assertThat(nodes.get(0).getArgs(), sameInstance(Collections.emptyList()));
+        assertThat(nodes.get(0).getProps(), sameInstance(Collections.emptyMap()));
+        assertThat(nodes.get(1).getArgs().get(0), sameInstance(nodes.get(2).getArgs().get(0)));
+        assertThat(nodes.get(2).getProps().get("k"), equalTo(new KDLBoolean(true, Optional.of("t"))));
+    }
+
+    @Test
+    public void test_fromArraysChecksArguments() {
+        assertThat(() -> KDLObjectsFacade.nodeFromArrays("a", Optional.empty(), new String[1], new KDLValue<?>[0], new KDLValue<?>[0],
+                Optional.empty(), null), throwsException(IllegalArgumentException.class));
+        assertThat(() -> KDLObjectsFacade.nodeFromArrays("a", Optional.empty(), new String[0], new KDLValue<?>[0], new KDLValue<?>[0],
+                null, null), throwsException(IllegalArgumentException.class));
+    }
+
+    private static KDLNumber number(long value) {
+        return KDLNumber.fromLong(value, 10, Optional.empty());
+    }
+}
@@ -0,0 +1,89 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestParallel {
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void test_matchesSerialParse() {
+        final StringBuilder doc = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            doc.append("node").append(i).append(" ").append(i).append(" key=\"multi\nline \\\" string\" {\n")
+                    .append("    child r#\"raw \"\n} \"# /* nested /* block\n } */ comment */ 1\n")
+                    .append("    /-skipped { a; b; }\n")
+                    .append("}; next \\\n    \"continued\" // comment \"\n")
+                    .append("/-skipped {\n    c\n}\n");
+        }
+
+        final KDLDocument expected = parser.parse(doc.toString());
+        assertThat(expected.getNodes().size(), equalTo(400));
+        assertThat(parseParallel(doc.toString(), 1), equalTo(expected));
+        assertThat(parseParallel(doc.toString(), 1000), equalTo(expected));
+        assertThat(parser.parseParallel(doc), equalTo(expected));
+    }
+
+    @Test
+    public void test_testCases() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            KDLDocument expected = null;
+            try {
+                expected = parser.parse(doc);
+            } catch (KDLParseException e) {
+                assertThat(input.toString(), () -> parseParallel(doc, 1), throwsException(KDLParseException.class));
+            }
+
+            if (expected != null) {
+                assertThat(input.toString(), parseParallel(doc, 1), equalTo(expected));
+            }
+        }
+    }
+
+    @Test
+    public void test_errorLocation() {
+        final StringBuilder doc = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            doc.append("node ").append(i).append(" \"a\nb\"\n");
+        }
+        doc.append("node {\n    child \"unterminated\n}");
+
+        try {
+            parseParallel(doc.toString(), 1);
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString("Line 203:"));
+        }
+    }
+
+    private static KDLDocument parseParallel(String doc, int minChunkSize) {
+        final char[] chars = doc.toCharArray();
+        return parser.parseParallel(chars, chars.length, pool, minChunkSize);
+    }
+}
@@ -0,0 +1,119 @@
+package dev.hbeck.kdl.parse;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.readRemainder;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestParseContext {
+    @Test
+    public void test_unreadAcrossWindowRefill() throws IOException {
+        final KDLParseContext context = new KDLParseContext(new StringReader("abcdefg"), 4);
+
+        assertThat(context.read(), equalTo((int) 'a'));
+        assertThat(context.read(), equalTo((int) 'b'));
+        assertThat(context.read(), equalTo((int) 'c'));
+        assertThat(context.read(), equalTo((int) 'd'));
+        assertThat(context.peek(), equalTo((int) 'e'));
+        context.unread('d');
+        assertThat(context.read(), equalTo((int) 'd'));
+        assertThat(context.read(), equalTo((int) 'e'));
+        context.unread('e');
+        context.unread('d');
+        assertThat(readRemainder(context), equalTo("defg"));
+        assertThat(context.peek(), equalTo(KDLParser.EOF));
+    }
+
+    @Test
+    public void test_arrayRange() throws IOException {
+        final KDLParseContext context = new KDLParseContext("xxabcxx".toCharArray(), 2, 3);
+
+        assertThat(readRemainder(context), equalTo("abc"));
+        assertThat(context.read(), equalTo(KDLParser.EOF));
+    }
+
+    @Test
+    public void test_parseInMemorySources() throws IOException {
+        final String doc = "node 1 \"two\" key=r\"three\" {\n    child\n}\nother";
+        final char[] padded = ("// before\n" + doc).toCharArray();
+
+        assertThat(parser.parse(doc.toCharArray()), equalTo(parser.parse(new StringReader(doc))));
+        assertThat(parser.parse(new StringBuilder(doc)), equalTo(parser.parse(doc)));
+        assertThat(parser.parse(padded, 10, doc.length()), equalTo(parser.parse(doc)));
+    }
+
+    @Test
+    public void test_errorLocation() throws IOException {
+        final String doc = "first\nsecond line\nthird";
+        final String expected = "Line 2:\nsecond line\n--------^";
+
+        final KDLParseContext inMemory = new KDLParseContext(doc);
+        final KDLParseContext windowed = new KDLParseContext(new StringReader(doc), 3);
+        for (KDLParseContext context : new KDLParseContext[]{inMemory, windowed}) {
+            for (int i = 0; i < 15; i++) {
+                context.read();
+            }
+            assertThat(context.getErrorLocationAndInvalidateContext(), equalTo(expected));
+        }
+    }
+
+    @Test
+    public void test_errorLocationAfterUnreadLinespace() throws IOException {
+        final KDLParseContext context = new KDLParseContext("ab\ncd");
+        for (int i = 0; i < 4; i++) {
+            context.read();
+        }
+        context.unread('c');
+        context.unread('\n');
+
+        assertThat(context.getLine(), equalTo(1));
+        assertThat(context.getErrorLocationAndInvalidateContext(), equalTo("Line 1:\nab\n-^"));
+    }
+
+    @Test
+    public void test_skipRuns() throws IOException {
+        final KDLParseContext context = new KDLParseContext(new StringReader("  \t x // y\nab\\c\"d"), 4);
+
+        // Runs stop at the end of the window, so each is skipped until the next character ends it
+        while (context.peek() == ' ' || context.peek() == '\t') {
+            context.skipWhitespace();
+        }
+        assertThat(context.read(), equalTo((int) 'x'));
+
+        while (context.peek() != '\n') {
+            context.skipToLinespace();
+        }
+        assertThat(context.read(), equalTo((int) '\n'));
+        assertThat(context.getLine(), equalTo(2));
+
+        final StringBuilder stringBuilder = new StringBuilder();
+        while (context.peek() != '\\') {
+            context.takeStringRun(stringBuilder, true, Long.MAX_VALUE);
+        }
+        assertThat(context.read(), equalTo((int) '\\'));
+        while (context.peek() != '"') {
+            context.takeStringRun(stringBuilder, false, Long.MAX_VALUE);
+        }
+        assertThat(stringBuilder.toString(), equalTo("abc"));
+        assertThat(readRemainder(context), equalTo("\"d"));
+    }
+
+    @Test
+    public void test_parseLongRunsAcrossWindows() throws IOException {
+        final StringBuilder doc = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            doc.append("                node \"a long string value \\t with an escape\" ")
+                    .append("r#\"a \"raw\" string\"# // a line comment\n");
+        }
+
+        for (int bufferSize : new int[]{3, 7, 64}) {
+            assertThat(parser.parseDocument(new KDLParseContext(new StringReader(doc.toString()), bufferSize)),
+                    equalTo(parser.parse(doc.toString())));
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestParseLimits {
+    private static KDLParser limited(ParseLimits.Builder limits) {
+        return new KDLParser(ParseConfig.builder().setLimits(limits.build()).build());
+    }
+
+    private static void assertFails(KDLParser parser, String doc, String message) {
+        try {
+            parser.parse(doc);
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString(message));
+        }
+
+        try {
+            parser.parse(new StringReader(doc));
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString(message));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    public void test_depth() throws IOException {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxDepth(2));
+        final String doc = "a {\n    b {\n        c\n    }\n}\n";
+
+        assertThat(parser.parse(doc), equalTo(unlimited(doc)));
+        assertFails(parser, "a {\n    b {\n        c {\n            d\n        }\n    }\n}\n", "maximum depth of 2");
+        assertFails(parser, "a {\n    b {\n        /-c {\n            d\n        }\n    }\n}\n", "maximum depth of 2");
+    }
+
+    @Test
+    public void test_depthOfLazyChildren() {
+        final KDLParser parser = new KDLParser(ParseConfig.builder()
+                .setLimits(ParseLimits.builder().setMaxDepth(1).build())
+                .setParseChildrenLazily(true)
+                .build());
+        final KDLDocument doc = parser.parse("a {\n    b {\n        c\n    }\n}\n");
+
+        // The block opened inside a's child is too deep, which is found once a's child is parsed
+        assertThat(() -> doc.getNodes().get(0).getChild(), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_nodes() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxNodes(3));
+
+        assertThat(parser.parse("a\nb {\n    c\n}\n"), equalTo(unlimited("a\nb {\n    c\n}\n")));
+        assertFails(parser, "a\nb {\n    c\n}\nd\n", "maximum of 3 nodes");
+        assertFails(parser, "a\nb\n/-c\nd\n", "maximum of 3 nodes");
+    }
+
+    @Test
+    public void test_nodesFed() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxNodes(3));
+        final List<Object> nodes = new ArrayList<>();
+        final KDLFeedParser feedParser = parser.feedParser(nodes::add);
+        final char[] input = "a\nb\nc\nd\n".toCharArray();
+
+        assertThat(() -> {
+            for (int i = 0; i < input.length; i++) {
+                feedParser.feed(input, i, 1);
+            }
+        }, throwsException(KDLParseException.class));
+        assertThat(nodes.size(), equalTo(3));
+    }
+
+    @Test
+    public void test_nodesLazy() {
+        final KDLParser parser = new KDLParser(ParseConfig.builder()
+                .setParseChildrenLazily(true)
+                .setLimits(ParseLimits.builder().setMaxNodes(5).build())
+                .build());
+
+        final KDLDocument within = parser.parse("a {\n    b\n}\nc {\n    d\n    e\n}\n");
+        within.getNodes().forEach(node -> node.getChild());
+
+        final KDLDocument over = parser.parse("a {\n    b\n    c\n}\nd {\n    e\n    f\n}\n");
+        over.getNodes().get(0).getChild();
+        assertThat(() -> over.getNodes().get(1).getChild(), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_nodesParallel() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxNodes(10));
+        final StringBuilder doc = new StringBuilder();
+        for (int i = 0; i < 11; i++) {
+            doc.append("node ").append(i).append('\n');
+        }
+
+        final char[] chars = doc.toString().toCharArray();
+        assertThat(parser.parseParallel(chars, chars.length - 8, ForkJoinPool.commonPool(), 1).getNodes().size(), equalTo(10));
+        try {
+            parser.parseParallel(chars, chars.length, ForkJoinPool.commonPool(), 1);
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString("maximum of 10 nodes"));
+        }
+    }
+
+    @Test
+    public void test_argsAndProps() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxArguments(2).setMaxProperties(1));
+
+        assertThat(parser.parse("a 1 2 k=3\nb 1 2 k=3\n"), equalTo(unlimited("a 1 2 k=3\nb 1 2 k=3\n")));
+        assertFails(parser, "a 1 2 3\n", "maximum of 2 arguments");
+        assertFails(parser, "a 1 2 /-3\n", "maximum of 2 arguments");
+        assertFails(parser, "a k=1 l=2\n", "maximum of 1 properties");
+    }
+
+    @Test
+    public void test_stringLength() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxStringLength(4));
+
+        assertThat(parser.parse("abcd \"efgh\" r#\"ijkl\"# \"\\n\\t\"\n"),
+                equalTo(unlimited("abcd \"efgh\" r#\"ijkl\"# \"\\n\\t\"\n")));
+        assertFails(parser, "abcde\n", "maximum length of 4");
+        assertFails(parser, "a \"efghi\"\n", "maximum length of 4");
+        assertFails(parser, "a \"\\n\\t\\n\"\n", "maximum length of 4");
+        assertFails(parser, "a r#\"ijklm\"#\n", "maximum length of 4");
+        assertFails(parser, "a key=\"efghi\"\n", "maximum length of 4");
+        assertFails(parser, "a \"efghi\"=1\n", "maximum length of 4");
+
+        final KDLParser lazyParser = new KDLParser(ParseConfig.builder()
+                .setLimits(ParseLimits.builder().setMaxStringLength(4).build())
+                .setParseValuesLazily(true)
+                .build());
+        assertThat(() -> lazyParser.parse("a \"efghi\"\n"), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_stringLengthBoundsCopy() throws IOException {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxStringLength(10));
+        final StringBuilder doc = new StringBuilder("a \"");
+        for (int i = 0; i < 100000; i++) {
+            doc.append('x');
+        }
+        final String escaped = doc + "\\n\"\n";
+        final String raw = "a r" + doc.substring(2) + "\"\n";
+
+        for (String input : new String[]{escaped, raw}) {
+            for (KDLParseContext context : new KDLParseContext[]{
+                    new KDLParseContext(KDLParseContext.toCharArray(input), 0, input.length(), 1, false),
+                    new KDLParseContext(new StringReader(input))}) {
+                final StringBuilder scratch = new StringBuilder();
+                context.setScratch(scratch);
+                try {
+                    parser.parseDocument(context);
+                    fail("Expected a parse exception");
+                } catch (KDLParseException e) {
+                    assertThat(e.getMessage(), containsString("maximum length of 10"));
+                }
+
+                assertThat(scratch.length() <= 11, equalTo(true));
+                assertThat(scratch.capacity() < 1000, equalTo(true));
+            }
+        }
+    }
+
+    @Test
+    public void test_numberDigits() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxNumberDigits(4));
+
+        assertThat(parser.parse("a 1234 1.23 1_2_3_4 0xabcd 1e99\n"), equalTo(unlimited("a 1234 1.23 1_2_3_4 0xabcd 1e99\n")));
+        assertFails(parser, "a 12345\n", "maximum of 4 digits");
+        assertFails(parser, "a 1.2345\n", "maximum of 4 digits");
+        assertFails(parser, "a 12e345\n", "maximum of 4 digits");
+        assertFails(parser, "a 0b10101\n", "maximum of 4 digits");
+    }
+
+    @Test
+    public void test_inputSize() {
+        final KDLParser parser = limited(ParseLimits.builder().setMaxInputSize(10));
+
+        assertThat(parser.parse("a 1 2 3 4\n"), equalTo(unlimited("a 1 2 3 4\n")));
+        assertFails(parser, "a 1 2 3 4 5\n", "maximum size of 10 characters");
+        final String longComment = "a // " + new String(new char[100000]).replace('\0', 'x');
+        assertFails(parser, longComment, "maximum size of 10 characters");
+        assertThat(() -> parser.parseParallel("a 1 2 3 4 5\n".toCharArray(), ForkJoinPool.commonPool()),
+                throwsException(KDLParseException.class));
+
+        final KDLFeedParser feedParser = parser.feedParser(node -> {});
+        final char[] input = "a 1 2 3 4 5\n".toCharArray();
+        assertThat(() -> feedParser.feed(input, 0, input.length), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_invalidLimits() {
+        assertThat(() -> ParseLimits.builder().setMaxDepth(-1).build(), throwsException(IllegalArgumentException.class));
+    }
+
+    private static KDLDocument unlimited(String doc) {
+        return parser.parse(doc);
+    }
+}
@@ -0,0 +1,48 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLNode;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestParseNodes {
+    private static final String DOC = "a 1\n/-skipped\nb key=\"val\" {\n    c\n}; d\n\ne {}";
+
+    @Test
+    public void test_iterator() {
+        final List<KDLNode> nodes = new ArrayList<>();
+        parser.parseNodes(new StringReader(DOC)).forEachRemaining(nodes::add);
+
+        assertThat(nodes, equalTo(parser.parse(DOC).getNodes()));
+        assertThat(parser.parseNodes(new StringReader("")).hasNext(), equalTo(false));
+    }
+
+    @Test
+    public void test_stream() {
+        final byte[] bytes = DOC.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(parser.streamNodes(new StringReader(DOC)).collect(Collectors.toList()), equalTo(parser.parse(DOC).getNodes()));
+        assertThat(parser.streamNodes(new ByteArrayInputStream(bytes)).map(KDLNode::getIdentifier).collect(Collectors.toList()),
+                equalTo(parser.parse(DOC).getNodes().stream().map(KDLNode::getIdentifier).collect(Collectors.toList())));
+    }
+
+    @Test
+    public void test_errorsAreLazy() {
+        final Iterator<KDLNode> iterator = parser.parseNodes(new StringReader("a\nb\nc {"));
+
+        assertThat(iterator.next().getIdentifier(), equalTo("a"));
+        assertThat(iterator.next().getIdentifier(), equalTo("b"));
+        assertThat(iterator::hasNext, throwsException(KDLParseException.class));
+    }
+}
@@ -7,6 +7,8 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
 
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -54,6 +56,14 @@ public class TestParseNumber {
                 new Object[]{"0b10", KDLNumber.from(2, 2)},
                 new Object[]{"0b1_0", KDLNumber.from(2, 2)},
                 new Object[]{"-0b10", KDLNumber.from(-2, 2)},
+                new Object[]{"9223372036854775807", KDLNumber.from(Long.MAX_VALUE, 10)},
+                new Object[]{"-9223372036854775807", KDLNumber.from(-Long.MAX_VALUE, 10)},
+                new Object[]{"9223372036854775808", KDLNumber.from(new BigDecimal("9223372036854775808"), 10)},
+                new Object[]{"-92233720368547758070", KDLNumber.from(new BigDecimal("-92233720368547758070"), 10)},
+                new Object[]{"9223372036854775808.5", KDLNumber.from(new BigDecimal("9223372036854775808.5"), 10)},
+                new Object[]{"0x7FFFFFFFFFFFFFFF", KDLNumber.from(Long.MAX_VALUE, 16)},
+                new Object[]{"0xFFFFFFFFFFFFFFFFFF", KDLNumber.from(new BigInteger("FFFFFFFFFFFFFFFFFF", 16), 16)},
+                new Object[]{"-0xFFFFFFFFFFFFFFFFFF", KDLNumber.from(new BigInteger("-FFFFFFFFFFFFFFFFFF", 16), 16)},
                 new Object[]{"A", null},
                 new Object[]{"_", null},
                 new Object[]{"_1", null},
@@ -74,6 +84,7 @@ public class TestParseNumber {
         try {
             final KDLNumber str = TestUtil.parser.parseNumber(context, Optional.empty());
             assertThat(str, equalTo(expectedResult));
+            assertThat(str.hashCode(), equalTo(expectedResult.hashCode()));
         } catch (KDLParseException | KDLInternalException e) {
             if (expectedResult != null) {
                 throw new KDLParseException("Expected no errors", e);
@@ -416,6 +416,48 @@ public class TestParser {
         assertThat(() -> parser.parse("node key=(type)bare"), throwsException(KDLParseException.class));
     }
 
+    @Test
+    public void test_numberRepresentation() {
+        final List<KDLValue<?>> args = parser.parse("node 8080 0xFF 1.5 1e3 99999999999999999999 0xFFFFFFFFFFFFFFFFFF")
+                .getNodes().get(0).getArgs();
+
+        assertThat(args.get(0).getAsNumber().get().getValue(), equalTo(8080L));
+        assertThat(args.get(1).getAsNumber().get().getValue(), equalTo(255L));
+        assertThat(args.get(2).getAsNumber().get().getValue(), equalTo(new BigDecimal("1.5")));
+        assertThat(args.get(3).getAsNumber().get().getValue(), equalTo(new BigDecimal("1e3")));
+        assertThat(args.get(4).getAsNumber().get().getValue(), equalTo(new BigDecimal("99999999999999999999")));
+        assertThat(args.get(5).getAsNumber().get().getValue(), equalTo(new BigInteger("FFFFFFFFFFFFFFFFFF", 16)));
+        assertThat(args.get(0), equalTo(KDLNumber.from(new BigDecimal(8080))));
+        assertThat(args.get(0).hashCode(), equalTo(KDLNumber.from(new BigDecimal(8080)).hashCode()));
+    }
+
+    @Test
+    public void test_deepNesting() {
+        final int depth = 100000;
+        final StringBuilder doc = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            doc.append("n {\n");
+        }
+        for (int i = 0; i < depth; i++) {
+            doc.append("}\n");
+        }
+
+        KDLDocument level = parser.parse(doc.toString());
+        for (int i = 0; i < depth; i++) {
+            level = level.getNodes().get(0).getChild().get();
+        }
+        assertThat(level.getNodes().isEmpty(), equalTo(true));
+
+        final StringBuilder comment = new StringBuilder("node /*");
+        for (int i = 0; i < depth; i++) {
+            comment.append("/*");
+        }
+        for (int i = 0; i < depth; i++) {
+            comment.append("*/");
+        }
+        assertThat(parser.parse(comment.append("*/ 1").toString()), equalTo(doc(node("node", list(1)))));
+    }
+
     private KDLDocument doc(KDLNode... nodes) {
         List<KDLNode> nodeList = new ArrayList<>();
         Collections.addAll(nodeList, nodes);
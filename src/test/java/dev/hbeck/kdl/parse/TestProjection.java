@@ -0,0 +1,112 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import dev.hbeck.kdl.search.PathedSearch;
+import dev.hbeck.kdl.search.predicates.NodePredicate;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestProjection {
+    private static final String DOC = "config {\n" +
+            "    server \"a\" port=80 {\n" +
+            "        tls on=true\n" +
+            "    }\n" +
+            "    client \"b\"\n" +
+            "    server \"c\"\n" +
+            "}\n" +
+            "other {\n" +
+            "    server \"d\"\n" +
+            "}\n" +
+            "config {\n" +
+            "    client \"e\"\n" +
+            "}\n";
+
+    private static KDLParser projected(Projection.Builder projection) {
+        return new KDLParser(ParseConfig.builder().setProjection(projection.build()).build());
+    }
+
+    @Test
+    public void test_matchingBranches() throws IOException {
+        final KDLParser projectedParser = projected(Projection.builder().addLevel("config"::equals).addLevel("server"::equals));
+        final KDLDocument expected = parser.parse("config {\n" +
+                "    server \"a\" port=80 {\n" +
+                "        tls on=true\n" +
+                "    }\n" +
+                "    server \"c\"\n" +
+                "}\n");
+
+        assertThat(projectedParser.parse(DOC), equalTo(expected));
+        assertThat(projectedParser.parse(new StringReader(DOC)), equalTo(expected));
+        assertThat(projectedParser.newSession().parse(DOC), equalTo(expected));
+
+        final List<KDLNode> nodes = new ArrayList<>();
+        projectedParser.parseNodes(new StringReader(DOC)).forEachRemaining(nodes::add);
+        assertThat(nodes, equalTo(expected.getNodes()));
+    }
+
+    @Test
+    public void test_lazyChildren() {
+        final KDLParser lazyParser = new KDLParser(ParseConfig.builder()
+                .setProjection(Projection.builder().addLevel("config"::equals).addLevel("server"::equals).build())
+                .setParseChildrenLazily(true)
+                .build());
+
+        final PathedSearch search = PathedSearch.builder()
+                .addLevel(NodePredicate.hasName("config"))
+                .addLevel(NodePredicate.hasName("server"))
+                .build();
+        assertThat(lazyParser.parse(DOC), equalTo(search.filter(parser.parse(DOC), false)));
+    }
+
+    @Test
+    public void test_skippedNodesStillValidated() {
+        final KDLParser projectedParser = projected(Projection.builder().addLevel("config"::equals));
+
+        assertThat(() -> projectedParser.parse("other \"open\nconfig\n"), throwsException(KDLParseException.class));
+        assertThat(() -> projectedParser.parse("other {\n    a 1.2.3\n}\n"), throwsException(KDLParseException.class));
+        assertThat(() -> Projection.builder().build(), throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void test_testCases() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+        final KDLParser rootParser = projected(Projection.builder().addLevel(name -> name.startsWith("n")));
+        final KDLParser childParser = projected(Projection.builder().addLevel(name -> true).addLevel("node"::equals));
+        final PathedSearch rootSearch = PathedSearch.builder()
+                .addLevel(new NodePredicate(name -> name.startsWith("n"), node -> true))
+                .build();
+        final PathedSearch childSearch = PathedSearch.builder()
+                .addLevel(NodePredicate.any())
+                .addLevel(NodePredicate.hasName("node"))
+                .build();
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            final KDLDocument full;
+            try {
+                full = parser.parse(doc);
+            } catch (KDLParseException e) {
+                continue;
+            }
+
+            assertThat(input.toString(), rootParser.parse(doc), equalTo(rootSearch.filter(full, false)));
+            assertThat(input.toString(), childParser.parse(doc), equalTo(childSearch.filter(full, false)));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package dev.hbeck.kdl.parse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestRecovery {
+    @Test
+    public void test_multipleErrors() {
+        final RecoveredDocument result = parser.parseRecovering("a 1\nb ]\nc \"x\" k=maybe\nd {\n    e 1 2 ]\n    f\n}\ng\n");
+
+        assertThat(result.isValid(), equalTo(false));
+        assertThat(lines(result), equalTo(Arrays.asList(2, 3, 5)));
+        assertThat(result.getDocument(), equalTo(parser.parse("a 1\nb\nc \"x\"\nd {\n    e 1 2\n    f\n}\ng\n")));
+    }
+
+    @Test
+    public void test_resynchronizeAtBrace() {
+        assertRecovered("a { b ] }\nc\n", "a { b; }\nc\n", 1);
+        assertRecovered("a { b { c ] } }\nd\n", "a { b { c; }; }\nd\n", 1);
+        assertRecovered("a\n}\nb\n", "a\nb\n", 1);
+    }
+
+    @Test
+    public void test_resynchronizeAtSemicolon() {
+        assertRecovered("a ]; b 1\n", "a; b 1\n", 1);
+    }
+
+    @Test
+    public void test_unclosed() {
+        assertRecovered("a {\n    b 1\n", "a {\n    b 1\n}\n", 1);
+        assertRecovered("a \"unterminated\n", "a\n", 1);
+    }
+
+    @Test
+    public void test_skipped() {
+        assertRecovered("/-a ]\nb\n", "b\n", 1);
+        assertRecovered("a /-{ b ] }\nc\n", "a\nc\n", 1);
+        assertRecovered("/-a {\n    b ]\n    c\n}\nd\n", "d\n", 1);
+    }
+
+    @Test
+    public void test_invalidUtf8() throws IOException {
+        final byte[] bytes = {'a', ' ', '1', '\n', 'b', ' ', (byte) 0xFF, '\n', 'c', '\n'};
+        final RecoveredDocument result = parser.parseRecovering(new ByteArrayInputStream(bytes));
+
+        assertThat(result.getDiagnostics().size(), equalTo(1));
+        assertThat(result.getDocument().getNodes().get(0), equalTo(parser.parse("a 1").getNodes().get(0)));
+    }
+
+    @Test
+    public void test_matchesParse() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            final RecoveredDocument result = parser.parseRecovering(new StringReader(doc));
+            final ValidationResult validation = parser.validate(doc);
+            if (validation.isValid()) {
+                assertThat(input.toString(), result.getDiagnostics().isEmpty(), equalTo(true));
+                assertThat(input.toString(), result.getDocument(), equalTo(parser.parse(doc)));
+            } else {
+                final ParseDiagnostic first = result.getDiagnostics().get(0);
+                assertThat(input.toString(), first.getOffset(), equalTo(validation.getOffset()));
+                assertThat(input.toString(), first.getLine(), equalTo(validation.getLine()));
+            }
+        }
+    }
+
+    private static void assertRecovered(String doc, String expected, int errors) {
+        final RecoveredDocument result = parser.parseRecovering(doc);
+        assertThat(doc, result.getDiagnostics().size(), equalTo(errors));
+        assertThat(doc, result.getDocument(), equalTo(parser.parse(expected)));
+    }
+
+    private static List<Integer> lines(RecoveredDocument result) {
+        return result.getDiagnostics().stream().map(ParseDiagnostic::getLine).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,81 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestSession {
+    @Test
+    public void test_reuseAcrossParses() throws IOException {
+        final KDLParser.Session session = parser.newSession();
+        final String first = "node \"a long string value\" 1.5 \"esc\\taped\" {\n    child 99999999999999999999\n}\n";
+        final String second = "other \"short\" 2\n";
+
+        final KDLDocument firstDoc = session.parse(first);
+        final KDLDocument secondDoc = session.parse(second);
+        assertThat(firstDoc, equalTo(parser.parse(first)));
+        assertThat(secondDoc, equalTo(parser.parse(second)));
+
+        assertThat(session.parse(new StringReader(first)), equalTo(firstDoc));
+        assertThat(session.parse(new ByteArrayInputStream(second.getBytes(StandardCharsets.UTF_8))), equalTo(secondDoc));
+        final byte[] bytes = ("x" + first).getBytes(StandardCharsets.UTF_8);
+        assertThat(session.parse(bytes, 1, bytes.length - 1), equalTo(firstDoc));
+    }
+
+    @Test
+    public void test_usableAfterFailure() {
+        final KDLParser.Session session = parser.newSession();
+
+        assertThat(() -> session.parse("a {\n    b \"open\n"), throwsException(KDLParseException.class));
+        assertThat(session.parse("c 1\n"), equalTo(parser.parse("c 1\n")));
+    }
+
+    @Test
+    public void test_lazyValuesCopiedOut() {
+        final KDLParser lazyParser = new KDLParser(ParseConfig.builder()
+                .setParseValuesLazily(true)
+                .setParseChildrenLazily(true)
+                .build());
+        final KDLParser.Session session = lazyParser.newSession();
+
+        final KDLDocument first = session.parse("a \"one\" 1.5 {\n    b \"two\"\n}\n");
+        session.parse("c \"xxx\" 9.9 {\n    d \"yyy\"\n}\n");
+        assertThat(first, equalTo(parser.parse("a \"one\" 1.5 {\n    b \"two\"\n}\n")));
+    }
+
+    @Test
+    public void test_testCases() throws IOException {
+        final KDLParser.Session session = parser.newSession();
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            KDLDocument expected = null;
+            try {
+                expected = parser.parse(doc);
+            } catch (KDLParseException e) {
+                assertThat(input.toString(), () -> session.parse(doc), throwsException(KDLParseException.class));
+            }
+
+            if (expected != null) {
+                assertThat(input.toString(), session.parse(doc), equalTo(expected));
+                assertThat(input.toString(), session.parse(new StringReader(doc)), equalTo(expected));
+            }
+        }
+    }
+}
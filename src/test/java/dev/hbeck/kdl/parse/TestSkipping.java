@@ -0,0 +1,115 @@
+package dev.hbeck.kdl.parse;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class TestSkipping {
+    @Test
+    public void test_skipArgOrProp() throws IOException {
+        assertSkipped("\"quoted\\n\" rest", false, 10);
+        assertSkipped("r#\"raw\"# rest", false, 8);
+        assertSkipped("(type)0x1F rest", false, 10);
+        assertSkipped("-1_000.5e-3 rest", false, 11);
+        assertSkipped("99999999999999999999 rest", false, 20);
+        assertSkipped("true rest", false, 4);
+        assertSkipped("key=(type)null rest", true, 14);
+        assertSkipped("\"key\"=r\"raw\" rest", true, 12);
+        assertSkipped("-key=false rest", true, 10);
+
+        assertThat(() -> skip("bare"), throwsException(KDLParseException.class));
+        assertThat(() -> skip("(type)key=1"), throwsException(KDLParseException.class));
+        assertThat(() -> skip("key=maybe"), throwsException(KDLParseException.class));
+        assertThat(() -> skip("\"\\q\""), throwsException(KDLParseException.class));
+        assertThat(() -> skip("0x"), throwsException(KDLParseException.class));
+        assertThat(() -> skip("1.e5"), throwsException(KDLParseException.class));
+        assertThat(() -> skip("1e+"), throwsException(KDLInternalException.class));
+    }
+
+    @Test
+    public void test_skippedMatchesParsed() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            String error = null;
+            try {
+                parser.parse(doc);
+            } catch (KDLParseException | KDLInternalException e) {
+                error = firstLine(e);
+            }
+
+            String skippedError = null;
+            try {
+                assertThat(input.toString(), parser.parse("/-wrapper {\n" + doc + "\n}\n").getNodes().isEmpty(), equalTo(true));
+            } catch (KDLParseException | KDLInternalException e) {
+                skippedError = firstLine(e);
+            }
+            assertThat(input.toString(), skippedError, equalTo(error));
+        }
+    }
+
+    private static String firstLine(RuntimeException e) {
+        return e.getMessage().split("\n")[0];
+    }
+
+    @Test
+    public void test_errorsNameToken() {
+        assertSkipError("/-node bare\n", "Arguments may not be bare: 'bare'");
+        assertSkipError("/-node -bare\n", "Arguments may not be bare: '-bare'");
+        assertSkipError("/-node key=fals\n", "Unknown literal in property value: 'fals'");
+    }
+
+    @Test
+    public void test_exponentRange() {
+        for (String exponent : new String[]{"1e9999999999", "1e-9999999999", "1e2147483648", "1e-2147483648",
+                "1.5e-2147483647", "1e12345678901"}) {
+            assertThat(exponent, () -> parser.parse("node " + exponent + "\n"), throwsException(KDLInternalException.class));
+            assertThat(exponent, () -> parser.parse("node /-" + exponent + "\n"), throwsException(KDLInternalException.class));
+            assertThat(exponent, () -> parser.parse("/-node " + exponent + "\n"), throwsException(KDLInternalException.class));
+        }
+
+        for (String exponent : new String[]{"1e2147483647", "1e-2147483647", "1.5e2147483647"}) {
+            assertThat(parser.parse("node " + exponent + "\n").getNodes().get(0).getArgs().size(), equalTo(1));
+            assertThat(parser.parse("node /-" + exponent + "\n"), equalTo(parser.parse("node\n")));
+            assertThat(parser.parse("/-node " + exponent + "\n").getNodes().size(), equalTo(0));
+        }
+    }
+
+    private static void assertSkipError(String doc, String message) {
+        try {
+            parser.parse(doc);
+            fail("Expected a parse exception");
+        } catch (KDLParseException e) {
+            assertThat(e.getMessage(), containsString(message));
+        }
+    }
+
+    private static void assertSkipped(String input, boolean property, int length) throws IOException {
+        final KDLParseContext context = new KDLParseContext(input);
+        assertThat(input, parser.skipArgOrProp(context), equalTo(property));
+        assertThat(input, context.getPosition(), equalTo(length));
+    }
+
+    private static void skip(String input) {
+        try {
+            parser.skipArgOrProp(new KDLParseContext(input));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
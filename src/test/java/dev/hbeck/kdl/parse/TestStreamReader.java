@@ -0,0 +1,107 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLNumber;
+import dev.hbeck.kdl.objects.KDLString;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.ARG;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.END_CHILDREN;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.END_DOCUMENT;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.END_NODE;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.PROP;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.START_CHILDREN;
+import static dev.hbeck.kdl.parse.KDLStreamReader.Event.START_NODE;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestStreamReader {
+    @Test
+    public void test_events() throws IOException {
+        assertThat(events(""), equalTo(Arrays.asList(END_DOCUMENT)));
+        assertThat(events("a; b"), equalTo(Arrays.asList(START_NODE, END_NODE, START_NODE, END_NODE, END_DOCUMENT)));
+        assertThat(events("a 1 key=2 \"three\""), equalTo(Arrays.asList(START_NODE, ARG, PROP, ARG, END_NODE, END_DOCUMENT)));
+        assertThat(events("a {\n    b {}\n}\nc"), equalTo(Arrays.asList(
+                START_NODE, START_CHILDREN,
+                START_NODE, START_CHILDREN, END_CHILDREN, END_NODE,
+                END_CHILDREN, END_NODE,
+                START_NODE, END_NODE,
+                END_DOCUMENT)));
+        assertThat(events("/-a 1 {\n b\n}\nc /-1 2 /-k=3 /-{\n d\n}"), equalTo(Arrays.asList(
+                START_NODE, ARG, END_NODE,
+                END_DOCUMENT)));
+    }
+
+    @Test
+    public void test_values() throws IOException {
+        final KDLStreamReader reader = parser.streamReader("(t)node \"arg\" key=10 {\n    child\n}");
+
+        assertThat(reader.next(), equalTo(START_NODE));
+        assertThat(reader.getIdentifier(), equalTo("node"));
+        assertThat(reader.getType(), equalTo(Optional.of("t")));
+        assertThat(reader.getDepth(), equalTo(0));
+
+        assertThat(reader.next(), equalTo(ARG));
+        assertThat(reader.getValue(), equalTo(KDLString.from("arg")));
+
+        assertThat(reader.next(), equalTo(PROP));
+        assertThat(reader.getKey(), equalTo("key"));
+        assertThat(reader.getValue(), equalTo(KDLNumber.from(new BigDecimal(10))));
+
+        assertThat(reader.next(), equalTo(START_CHILDREN));
+        assertThat(reader.getDepth(), equalTo(0));
+        assertThat(reader.next(), equalTo(START_NODE));
+        assertThat(reader.getIdentifier(), equalTo("child"));
+        assertThat(reader.getType(), equalTo(Optional.empty()));
+        assertThat(reader.getDepth(), equalTo(1));
+        assertThat(reader.next(), equalTo(END_NODE));
+        assertThat(reader.next(), equalTo(END_CHILDREN));
+        assertThat(reader.getDepth(), equalTo(0));
+        assertThat(reader.next(), equalTo(END_NODE));
+        assertThat(reader.next(), equalTo(END_DOCUMENT));
+        assertThat(reader.hasNext(), equalTo(false));
+    }
+
+    @Test
+    public void test_skipNode() throws IOException {
+        final KDLStreamReader reader = parser.streamReader(new StringReader("a 1 {\n    b 2 {\n        c\n    }\n}\nd"));
+
+        assertThat(reader.next(), equalTo(START_NODE));
+        assertThat(reader.next(), equalTo(ARG));
+        reader.skipNode();
+        assertThat(reader.getEvent(), equalTo(END_NODE));
+        assertThat(reader.next(), equalTo(START_NODE));
+        assertThat(reader.getIdentifier(), equalTo("d"));
+    }
+
+    @Test
+    public void test_errors() {
+        assertThat(() -> events("a {"), throwsException(KDLParseException.class));
+        assertThat(() -> events("}"), throwsException(KDLParseException.class));
+        assertThat(() -> events("a \"b"), throwsException(KDLParseException.class));
+        assertThat(() -> events("a /-"), throwsException(KDLParseException.class));
+    }
+
+    private static List<KDLStreamReader.Event> events(String input) {
+        final KDLStreamReader reader = parser.streamReader(input);
+        final List<KDLStreamReader.Event> events = new ArrayList<>();
+        try {
+            while (reader.hasNext()) {
+                events.add(reader.next());
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return events;
+    }
+}
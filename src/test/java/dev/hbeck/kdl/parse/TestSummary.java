@@ -0,0 +1,126 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import dev.hbeck.kdl.objects.KDLValue;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestSummary {
+    @Test
+    public void test_summary() {
+        final DocumentSummary summary = parser.summarize("a 1 \"two\" k=\"vé\" {\n    b\n    /-c\n    b { d true; }\n}\n/-e\nf\n");
+
+        assertThat(summary.getRootNodeCount(), equalTo(2));
+        assertThat(summary.getNodeCount(), equalTo(5L));
+        assertThat(summary.getMaxDepth(), equalTo(3));
+        assertThat(summary.getArgCount(), equalTo(3L));
+        assertThat(summary.getPropCount(), equalTo(1L));
+        assertThat(parser.summarize("a k=1 k=2").getPropCount(), equalTo(2L));
+        assertThat(summary.getStringBytes(), equalTo(6L));
+
+        final Map<String, Long> expected = new HashMap<>();
+        expected.put("a", 1L);
+        expected.put("b", 2L);
+        expected.put("d", 1L);
+        expected.put("f", 1L);
+        assertThat(summary.getIdentifierCounts(), equalTo(expected));
+        assertThat(summary.getRootOffsets(), equalTo(new long[]{0, 58}));
+
+        final DocumentSummary empty = parser.summarize("// nothing\n");
+        assertThat(empty.getMaxDepth(), equalTo(0));
+        assertThat(empty.getRootOffsets().length, equalTo(0));
+
+        assertThat(() -> parser.summarize("a {"), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_byteOffsets() throws IOException {
+        final StringBuilder doc = new StringBuilder("﻿");
+        for (int i = 0; i < 2000; i++) {
+            doc.append(i % 3 == 0 ? "ñode" : "node").append(i).append(" \"😀 ").append(i).append("\"\n");
+        }
+
+        final byte[] bytes = doc.toString().getBytes(StandardCharsets.UTF_8);
+        final DocumentSummary summary = parser.summarize(bytes);
+        assertThat(summary.getRootNodeCount(), equalTo(2000));
+        assertThat(parser.summarize(new ByteArrayInputStream(bytes)), equalTo(summary));
+        assertThat(parser.summarize(doc), equalTo(summary));
+        assertThat(parser.summarize(new StringReader(doc.toString())), equalTo(summary));
+
+        final long[] offsets = summary.getRootOffsets();
+        for (int i = 0; i < offsets.length; i++) {
+            final int from = (int) offsets[i];
+            final int to = i + 1 < offsets.length ? (int) offsets[i + 1] : bytes.length;
+            final String root = new String(bytes, from, to - from, StandardCharsets.UTF_8);
+            assertThat(root, parser.parse(root).getNodes().get(0).getIdentifier(), equalTo((i % 3 == 0 ? "ñode" : "node") + i));
+        }
+    }
+
+    @Test
+    public void test_matchesWalk() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            final KDLDocument parsed;
+            try {
+                parsed = parser.parse(doc);
+            } catch (KDLParseException | KDLInternalException e) {
+                continue;
+            }
+
+            final DocumentSummary summary = parser.summarize(doc);
+            final long[] walked = new long[5];
+            final Map<String, Long> identifiers = new HashMap<>();
+            walk(parsed, 1, walked, identifiers);
+
+            assertThat(input.toString(), summary.getRootNodeCount(), equalTo(parsed.getNodes().size()));
+            assertThat(input.toString(), summary.getNodeCount(), equalTo(walked[0]));
+            assertThat(input.toString(), (long) summary.getMaxDepth(), equalTo(walked[1]));
+            assertThat(input.toString(), summary.getArgCount(), equalTo(walked[2]));
+            // Repeated keys are counted each time they appear
+            assertThat(input.toString(), summary.getPropCount() >= walked[3], equalTo(true));
+            assertThat(input.toString(), summary.getStringBytes(), equalTo(walked[4]));
+            assertThat(input.toString(), summary.getIdentifierCounts(), equalTo(identifiers));
+        }
+    }
+
+    private static void walk(KDLDocument document, int depth, long[] counts, Map<String, Long> identifiers) {
+        for (KDLNode node : document.getNodes()) {
+            counts[0]++;
+            counts[1] = Math.max(counts[1], depth);
+            counts[2] += node.getArgs().size();
+            counts[3] += node.getProps().size();
+            for (KDLValue<?> value : node.getArgs()) {
+                counts[4] += stringBytes(value);
+            }
+            for (KDLValue<?> value : node.getProps().values()) {
+                counts[4] += stringBytes(value);
+            }
+            identifiers.merge(node.getIdentifier(), 1L, Long::sum);
+            node.getChild().ifPresent(child -> walk(child, depth + 1, counts, identifiers));
+        }
+    }
+
+    private static long stringBytes(KDLValue<?> value) {
+        return value.isString() ? value.getAsString().getValue().getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+}
@@ -0,0 +1,93 @@
+package dev.hbeck.kdl.parse;
+
+import dev.hbeck.kdl.objects.KDLDocument;
+import dev.hbeck.kdl.objects.KDLNode;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class TestSymbolTable {
+    @Test
+    public void test_intern() {
+        final SymbolTable symbols = new SymbolTable(16);
+        final String name = symbols.intern("xnamex".toCharArray(), 1, 4);
+
+        assertThat(name, equalTo("name"));
+        assertThat(symbols.intern("name".toCharArray(), 0, 4), sameInstance(name));
+        assertThat(symbols.intern(new String("name")), sameInstance(name));
+        assertThat(symbols.intern("other".toCharArray(), 0, 5), equalTo("other"));
+        assertThat(() -> new SymbolTable(0), throwsException(IllegalArgumentException.class));
+    }
+
+    @Test
+    public void test_sharedInstances() throws IOException {
+        final KDLParser symbolParser = new KDLParser(ParseConfig.builder()
+                .setSymbolTable(new SymbolTable())
+                .build());
+        final String doc = "(type)name key=1 \"quoted\"=2 r\"raw\"=3\n" +
+                "(type)name key=4 \"quoted\"=5 r\"raw\"=6\n" +
+                "\"name\" \"esc\\taped\"=7\n" +
+                "(\"type\")name \"esc\\taped\"=8\n";
+
+        final List<KDLDocument> documents = new ArrayList<>();
+        documents.add(symbolParser.parse(doc));
+        documents.add(symbolParser.parse(new StringReader(doc)));
+        documents.add(symbolParser.parseDocument(new KDLParseContext(new StringReader(doc), 3)));
+
+        for (KDLDocument document : documents) {
+            assertThat(document, equalTo(parser.parse(doc)));
+
+            final List<KDLNode> nodes = document.getNodes();
+            final KDLNode first = nodes.get(0);
+            for (KDLNode node : nodes) {
+                assertThat(node.getIdentifier(), sameInstance(first.getIdentifier()));
+            }
+            assertThat(nodes.get(1).getType().get(), sameInstance(first.getType().get()));
+            assertThat(nodes.get(3).getType().get(), sameInstance(first.getType().get()));
+            for (String key : nodes.get(1).getProps().keySet()) {
+                assertThat(first.getProps().keySet().stream().filter(key::equals).findFirst().get(), sameInstance(key));
+            }
+            assertThat(nodes.get(3).getProps().keySet().iterator().next(),
+                    sameInstance(nodes.get(2).getProps().keySet().iterator().next()));
+        }
+    }
+
+    @Test
+    public void test_testCases() throws IOException {
+        final KDLParser symbolParser = new KDLParser(ParseConfig.builder()
+                .setSymbolTable(new SymbolTable(8))
+                .build());
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            KDLDocument expected = null;
+            try {
+                expected = parser.parse(doc);
+            } catch (KDLParseException e) {
+                assertThat(input.toString(), () -> symbolParser.parse(doc), throwsException(KDLParseException.class));
+            }
+
+            if (expected != null) {
+                assertThat(input.toString(), symbolParser.parse(doc), equalTo(expected));
+                assertThat(input.toString(), symbolParser.parseDocument(new KDLParseContext(new StringReader(doc), 3)),
+                        equalTo(expected));
+            }
+        }
+    }
+}
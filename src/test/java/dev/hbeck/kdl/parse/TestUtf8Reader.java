@@ -0,0 +1,137 @@
+package dev.hbeck.kdl.parse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static dev.hbeck.kdl.TestUtil.throwsException;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestUtf8Reader {
+    private static final String MIXED = "ascii \u00E9 \u2603 \uD83D\uDE00 end";
+
+    @Test
+    public void test_decode() throws IOException {
+        final byte[] bytes = MIXED.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(readAll(new Utf8Reader(bytes, 0, bytes.length), 64), equalTo(MIXED));
+        assertThat(readAll(new Utf8Reader(bytes, 0, bytes.length), 1), equalTo(MIXED));
+        assertThat(readAll(new Utf8Reader(direct(bytes)), 3), equalTo(MIXED));
+    }
+
+    @Test
+    public void test_sequencesSplitAcrossRefills() throws IOException {
+        final byte[] bytes = MIXED.getBytes(StandardCharsets.UTF_8);
+
+        for (int bufferSize = 1; bufferSize < 8; bufferSize++) {
+            final Utf8Reader reader = new Utf8Reader(new ByteArrayInputStream(bytes), bufferSize);
+            assertThat(readAll(reader, 5), equalTo(MIXED));
+        }
+    }
+
+    @Test
+    public void test_mappedWindows() throws IOException {
+        final Path file = write(MIXED.getBytes(StandardCharsets.UTF_8));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int windowSize = 1; windowSize < 8; windowSize++) {
+                assertThat(readAll(new Utf8Reader(channel, windowSize), 5), equalTo(MIXED));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void test_byteOrderMark() throws IOException {
+        final byte[] bytes = "\uFEFFnode \"\uFEFF\"".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(readAll(new Utf8Reader(bytes, 0, bytes.length), 64), equalTo("node \"\uFEFF\""));
+    }
+
+    @Test
+    public void test_invalid() {
+        assertThat(() -> decode(new byte[]{(byte) 0xFF}), throwsException(KDLParseException.class));
+        assertThat(() -> decode(new byte[]{(byte) 0xC3, 'a'}), throwsException(KDLParseException.class));
+        assertThat(() -> decode(new byte[]{(byte) 0xE2, (byte) 0x98}), throwsException(KDLParseException.class));
+        assertThat(() -> decode(new byte[]{(byte) 0xC0, (byte) 0x80}), throwsException(KDLParseException.class));
+        assertThat(() -> decode(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_parseBytes() throws IOException {
+        final String doc = "node \"\u2603\" key=\"\u00E9\" {\n    child \"\uD83D\uDE00\"\n}";
+        final byte[] bytes = doc.getBytes(StandardCharsets.UTF_8);
+
+        assertThat(parser.parse(bytes), equalTo(parser.parse(doc)));
+        assertThat(parser.parse(ByteBuffer.wrap(bytes)), equalTo(parser.parse(doc)));
+        assertThat(parser.parse(direct(bytes)), equalTo(parser.parse(doc)));
+        assertThat(parser.parse(new ByteArrayInputStream(bytes)), equalTo(parser.parse(doc)));
+        assertThat(() -> parser.parse(new byte[]{'a', ' ', (byte) 0xFF}), throwsException(KDLParseException.class));
+    }
+
+    @Test
+    public void test_parseFile() throws IOException {
+        final String doc = "\uFEFFnode \"\u2603\" {\n    child \"\uD83D\uDE00\"\n}\nother";
+        final Path file = write(doc.getBytes(StandardCharsets.UTF_8));
+        final Path invalid = write(new byte[]{'a', ' ', (byte) 0xE2, (byte) 0x98});
+        try {
+            assertThat(parser.parse(file), equalTo(parser.parse(doc.substring(1))));
+            assertThat(parser.parseParallel(file), equalTo(parser.parse(doc.substring(1))));
+            assertThat(() -> parse(invalid), throwsException(KDLParseException.class));
+        } finally {
+            Files.delete(file);
+            Files.delete(invalid);
+        }
+    }
+
+    private static Path write(byte[] bytes) throws IOException {
+        final Path file = Files.createTempFile("kdl", ".kdl");
+        Files.write(file, bytes);
+        return file;
+    }
+
+    private static void parse(Path file) {
+        try {
+            parser.parse(file);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static ByteBuffer direct(byte[] bytes) {
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+        buffer.put(bytes);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static void decode(byte[] bytes) {
+        try {
+            readAll(new Utf8Reader(bytes, 0, bytes.length), 16);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String readAll(Reader reader, int chunkSize) throws IOException {
+        final StringBuilder stringBuilder = new StringBuilder();
+        final char[] chunk = new char[chunkSize];
+        int read = reader.read(chunk, 0, chunkSize);
+        while (read != KDLParser.EOF) {
+            stringBuilder.append(chunk, 0, read);
+            read = reader.read(chunk, 0, chunkSize);
+        }
+
+        return stringBuilder.toString();
+    }
+}
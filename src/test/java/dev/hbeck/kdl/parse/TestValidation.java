@@ -0,0 +1,124 @@
+package dev.hbeck.kdl.parse;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static dev.hbeck.kdl.TestUtil.parser;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class TestValidation {
+    @Test
+    public void test_valid() throws IOException {
+        final String doc = "node 1 \"two\" three=3 {\n    child (t)0x1F\n}\n/-skipped\n";
+
+        assertThat(parser.validate(doc).isValid(), equalTo(true));
+        assertThat(parser.validate(doc), equalTo(ValidationResult.VALID));
+        assertThat(parser.validate(doc.getBytes(StandardCharsets.UTF_8)).isValid(), equalTo(true));
+        assertThat(parser.validate(new StringReader(doc)).isValid(), equalTo(true));
+        assertThat(parser.validate(new ByteArrayInputStream(doc.getBytes(StandardCharsets.UTF_8))).isValid(), equalTo(true));
+        assertThat(parser.validate(doc).getMessage(), equalTo(Optional.empty()));
+    }
+
+    @Test
+    public void test_invalid() {
+        final ValidationResult result = parser.validate("node 1\nnode key=maybe\n");
+        assertThat(result.isValid(), equalTo(false));
+        assertThat(result.getLine(), equalTo(2));
+        assertThat(result.getColumn(), equalTo(9));
+        assertThat(result.getOffset(), equalTo(16L));
+        assertThat(result.getMessage().isPresent(), equalTo(true));
+
+        assertThat(parser.validate("node {\n").isValid(), equalTo(false));
+        assertThat(parser.validate("}").getLine(), equalTo(1));
+        assertThat(parser.validate("node \"\\q\"").isValid(), equalTo(false));
+    }
+
+    @Test
+    public void test_cheapErrors() {
+        final KDLParseContext context = new KDLParseContext(new StringReader("node"));
+        assertThat(context.error("Got %d", 1).getStackTrace().length > 0, equalTo(true));
+
+        context.setValidating();
+        final KDLParseException error = context.error("Got %d, expected '%s'", 1, "two");
+        assertThat(error.getStackTrace().length, equalTo(0));
+        assertThat(error.getMessage(), equalTo("Got 1, expected 'two'"));
+        assertThat(context.error("100% wrong").getMessage(), equalTo("100% wrong"));
+
+        assertThat(parser.validate("node \"\\q\"").getMessage(), equalTo(Optional.of("Illegal escape sequence: '\\q'")));
+    }
+
+    @Test
+    public void test_hugeExponents() {
+        for (String doc : new String[]{"node 1e9999999999\n", "node 1e-9999999999\n", "node 1.5e-2147483647\n",
+                "node 1e2147483647\n", "node 1e-2147483647\n"}) {
+            boolean parsed;
+            try {
+                parser.parse(doc);
+                parsed = true;
+            } catch (KDLParseException | KDLInternalException e) {
+                parsed = false;
+            }
+
+            assertThat(doc, parser.validate(doc).isValid(), equalTo(parsed));
+            assertThat(doc, parser.validate(doc.getBytes(StandardCharsets.UTF_8)).isValid(), equalTo(parsed));
+        }
+
+        assertThat(parser.validate("node 1e9999999999\n").isValid(), equalTo(false));
+        assertThat(parser.validate("node 1e-9999999999\n").isValid(), equalTo(false));
+    }
+
+    @Test
+    public void test_limits() {
+        final KDLParser limited = new KDLParser(ParseConfig.builder()
+                .setLimits(ParseLimits.builder().setMaxDepth(1).build())
+                .build());
+
+        assertThat(limited.validate("a { b; }").isValid(), equalTo(true));
+        assertThat(limited.validate("a { b { c; }; }").isValid(), equalTo(false));
+    }
+
+    @Test
+    public void test_session() {
+        final KDLParser.Session session = parser.newSession();
+        assertThat(session.validate("a 1 2 3").isValid(), equalTo(true));
+        assertThat(session.validate("a 1 2 ]").isValid(), equalTo(false));
+        assertThat(session.validate("b").isValid(), equalTo(true));
+
+        final byte[] bytes = "xx node 1 xx".getBytes(StandardCharsets.UTF_8);
+        assertThat(session.validate(bytes, 3, 6).isValid(), equalTo(true));
+        assertThat(session.validate(bytes, 3, 9).isValid(), equalTo(false));
+    }
+
+    @Test
+    public void test_matchesParse() throws IOException {
+        final List<Path> inputs = Files.list(new File("src/test/resources/test_cases/input").toPath())
+                .collect(Collectors.toList());
+
+        for (Path input : inputs) {
+            final String doc = new String(Files.readAllBytes(input), StandardCharsets.UTF_8);
+            final ValidationResult result = parser.validate(doc);
+            try {
+                parser.parse(doc);
+                assertThat(input.toString(), result, equalTo(ValidationResult.VALID));
+            } catch (KDLParseException | KDLInternalException e) {
+                assertThat(input.toString(), result.isValid(), equalTo(false));
+                final String message = e.getMessage();
+                assertThat(input.toString(), message.contains("Line " + result.getLine() + ":\n"), equalTo(true));
+
+                final String caret = message.substring(message.lastIndexOf('\n') + 1);
+                assertThat(input.toString(), caret.length(), equalTo(result.getColumn()));
+            }
+        }
+    }
+}